@@ -0,0 +1,71 @@
+package com.edu.ulab.benchmark;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.search.BookSearchField;
+import com.edu.ulab.app.search.BookSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы к индексу поиска книг: слово целиком (запрос с пробелом в конце), префикс и два слова на {@code books} книгах
+ * со словарём из {@link #WORDS} слов. Страница - {@link #PAGE_SIZE} книг.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSearchBenchmark {
+    static final int WORDS = 5000;
+    static final int PAGE_SIZE = 100;
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    private BookSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new BookSearchIndex();
+        Random random = new Random(42);
+        List<BookDto> batch = new ArrayList<>(10_000);
+        for (long id = 1; id <= books; id++) {
+            BookDto book = new BookDto();
+            book.setId(id);
+            book.setUserId(id / 5 + 1);
+            book.setTitle(word(random) + " " + word(random) + " " + word(random));
+            book.setAuthor(word(random) + " " + word(random));
+            book.setPageCount(100);
+            batch.add(book);
+            if (batch.size() == 10_000) {
+                index.addAll(batch);
+                batch.clear();
+            }
+        }
+        index.addAll(batch);
+    }
+
+    @Benchmark
+    public List<BookDto> token() {
+        return index.search("word42 ", BookSearchField.TITLE, 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookDto> prefix() {
+        return index.search("word42", BookSearchField.ANY, 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookDto> twoWords() {
+        return index.search("word42 word7", BookSearchField.ANY, 0L, PAGE_SIZE);
+    }
+
+    private static String word(Random random) {
+        return "word" + random.nextInt(WORDS);
+    }
+}
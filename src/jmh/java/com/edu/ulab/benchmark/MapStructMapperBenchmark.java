@@ -0,0 +1,88 @@
+package com.edu.ulab.benchmark;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сгенерированные MapStruct-мапперы на путях запрос - DTO - сущность и обратно.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapStructMapperBenchmark {
+    private final BookMapper bookMapper = new BookMapperImpl();
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private BookRequest bookRequest;
+    private BookDto bookDto;
+    private Book book;
+    private UserRequest userRequest;
+    private UserDto userDto;
+    private Person person;
+
+    @Setup
+    public void setUp() {
+        bookRequest = new BookRequest();
+        bookRequest.setTitle("Book");
+        bookRequest.setAuthor("Author");
+        bookRequest.setPageCount(100);
+
+        bookDto = bookMapper.bookRequestToBookDto(bookRequest);
+        bookDto.setId(1L);
+        bookDto.setUserId(2L);
+        book = bookMapper.bookDtoToBook(bookDto);
+
+        userRequest = new UserRequest();
+        userRequest.setFullName("Full Name");
+        userRequest.setTitle("reader");
+        userRequest.setAge(30);
+
+        userDto = userMapper.userRequestToUserDto(userRequest);
+        userDto.setId(2L);
+        person = userMapper.userDtoToPerson(userDto);
+    }
+
+    @Benchmark
+    public BookDto bookRequestToBookDto() {
+        return bookMapper.bookRequestToBookDto(bookRequest);
+    }
+
+    @Benchmark
+    public Book bookDtoToBook() {
+        return bookMapper.bookDtoToBook(bookDto);
+    }
+
+    @Benchmark
+    public BookDto bookToBookDto() {
+        return bookMapper.bookToBookDto(book);
+    }
+
+    @Benchmark
+    public UserDto userRequestToUserDto() {
+        return userMapper.userRequestToUserDto(userRequest);
+    }
+
+    @Benchmark
+    public Person userDtoToPerson() {
+        return userMapper.userDtoToPerson(userDto);
+    }
+
+    @Benchmark
+    public UserDto personToUserDto() {
+        return userMapper.personToUserDto(person);
+    }
+}
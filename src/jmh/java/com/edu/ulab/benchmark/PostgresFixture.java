@@ -0,0 +1,63 @@
+package com.edu.ulab.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PostgreSQL в контейнере и запуск приложения поверх него для бенчмарков.
+ * <p>
+ * Контейнер поднимается один раз на форк JMH, схема создаётся Liquibase при старте контекста.
+ */
+public final class PostgresFixture {
+    private static final String IMAGE_VERSION = "postgres:13-alpine";
+
+    private static PostgreSQLContainer<?> postgres;
+
+    private PostgresFixture() {
+    }
+
+    public static synchronized PostgreSQLContainer<?> postgres() {
+        if (postgres == null) {
+            postgres = new PostgreSQLContainer<>(
+                    DockerImageName.parse(IMAGE_VERSION).asCompatibleSubstituteFor("postgres"));
+            postgres.start();
+        }
+        return postgres;
+    }
+
+    /**
+     * Запускает приложение без веб-сервера, с выбранной реализацией сервисов и без логирования каждой операции.
+     *
+     * @param storageType значение {@code app.storage.type}: template, jpa или memory
+     */
+    public static ConfigurableApplicationContext startApplication(String storageType, Map<String, Object> properties) {
+        PostgreSQLContainer<?> container = postgres();
+
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("spring.datasource.url", container.getJdbcUrl());
+        defaults.put("spring.datasource.username", container.getUsername());
+        defaults.put("spring.datasource.password", container.getPassword());
+        defaults.put("spring.jpa.show-sql", "false");
+        defaults.put("spring.jpa.properties.hibernate.generate_statistics", "false");
+        defaults.put("spring.cache.type", "none");
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("app.storage.type", storageType);
+        defaults.putAll(properties);
+
+        return new SpringApplicationBuilder(AppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(defaults)
+                .run();
+    }
+
+    public static ConfigurableApplicationContext startApplication(String storageType) {
+        return startApplication(storageType, Map.of());
+    }
+}
@@ -0,0 +1,85 @@
+package com.edu.ulab.benchmark;
+
+import com.edu.ulab.app.config.MessageConverterConfig;
+import com.edu.ulab.app.web.response.UserBookPageResponse;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Запись и чтение страницы {@code GET /user} теми же конвертерами, что и в приложении: JSON, CBOR, Smile, Protobuf.
+ * Размер тела в байтах выводится при запуске каждого формата.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseFormatBenchmark {
+    static final int USERS = 1000;
+    static final int BOOKS_PER_USER = 5;
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+
+    private AbstractHttpMessageConverter<Object> converter;
+    private MediaType mediaType;
+    private UserBookPageResponse page;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        MessageConverterConfig config = new MessageConverterConfig();
+        converter = switch (format) {
+            case "json" -> new MappingJackson2HttpMessageConverter(new Jackson2ObjectMapperBuilder().build());
+            case "cbor" -> config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder());
+            case "smile" -> config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder());
+            case "protobuf" -> config.protobufHttpMessageConverter();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        mediaType = converter.getSupportedMediaTypes().get(0);
+
+        List<UserBookResponse> content = new ArrayList<>(USERS);
+        for (long userId = 1_000_000; userId < 1_000_000 + USERS; userId++) {
+            long firstBookId = userId * BOOKS_PER_USER;
+            content.add(UserBookResponse.builder()
+                    .userId(userId)
+                    .booksIdList(LongStream.range(firstBookId, firstBookId + BOOKS_PER_USER).toArray())
+                    .build());
+        }
+        page = UserBookPageResponse.builder()
+                .content(content)
+                .nextCursor("MTAwMDk5OQ")
+                .build();
+        body = write();
+        System.out.printf("%n%s payload: %d bytes%n", format, body.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return write();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return converter.read(UserBookPageResponse.class, new MockHttpInputMessage(body));
+    }
+
+    private byte[] write() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(page, mediaType, output);
+        return output.getBodyAsBytes();
+    }
+}
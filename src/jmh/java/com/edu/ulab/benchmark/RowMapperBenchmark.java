@@ -0,0 +1,100 @@
+package com.edu.ulab.benchmark;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookRowMapper;
+import com.edu.ulab.app.mapper.PersonRowMapper;
+import com.edu.ulab.app.web.constant.SQLQueryBookConstant;
+import com.edu.ulab.app.web.constant.SQLQueryUserConstant;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ручные {@link PersonRowMapper}/{@link BookRowMapper} против {@link BeanPropertyRowMapper}
+ * на одной и той же выборке. Результат - число строк в секунду ({@link OperationsPerInvocation}),
+ * строк в выборке {@link #ROWS}. Выборки читают таблицы целиком, поэтому база должна быть пустой:
+ * иначе число строк не совпадёт с {@link OperationsPerInvocation} и подготовка завершится ошибкой.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@OperationsPerInvocation(RowMapperBenchmark.ROWS)
+public class RowMapperBenchmark {
+    static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private List<Long> userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PostgresFixture.startApplication("template");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        UserDataFacade facade = context.getBean(UserDataFacade.class);
+
+        userIds = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            UserRequest userRequest = new UserRequest();
+            userRequest.setFullName("Row Mapper User");
+            userRequest.setTitle("mapper-" + i);
+            userRequest.setAge(30);
+
+            BookRequest bookRequest = new BookRequest();
+            bookRequest.setTitle("Book " + i);
+            bookRequest.setAuthor("Author " + i);
+            bookRequest.setPageCount(100);
+
+            UserBookRequest request = new UserBookRequest();
+            request.setUserRequest(userRequest);
+            request.setBookRequests(List.of(bookRequest));
+            userIds.add(facade.createUserWithBooks(request).getUserId());
+        }
+        checkRows("person", personRowMapper().size());
+        checkRows("book", bookRowMapper().size());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.getBean(UserDataFacade.class).deleteUsersWithBooks(userIds);
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> personRowMapper() {
+        return jdbcTemplate.query(SQLQueryUserConstant.SELECT_ALL_SQL, PersonRowMapper.INSTANCE);
+    }
+
+    @Benchmark
+    public List<Person> personBeanPropertyRowMapper() {
+        return jdbcTemplate.query(SQLQueryUserConstant.SELECT_ALL_SQL, new BeanPropertyRowMapper<>(Person.class));
+    }
+
+    @Benchmark
+    public List<Book> bookRowMapper() {
+        return jdbcTemplate.query(SQLQueryBookConstant.SELECT_ALL_SQL, BookRowMapper.INSTANCE);
+    }
+
+    @Benchmark
+    public List<Book> bookBeanPropertyRowMapper() {
+        return jdbcTemplate.query(SQLQueryBookConstant.SELECT_ALL_SQL, new BeanPropertyRowMapper<>(Book.class));
+    }
+
+    private static void checkRows(String table, int rows) {
+        if (rows != ROWS) {
+            throw new IllegalStateException("Expected " + ROWS + " rows in " + table + ", found " + rows);
+        }
+    }
+}
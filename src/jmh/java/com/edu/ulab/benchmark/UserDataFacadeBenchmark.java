@@ -0,0 +1,106 @@
+package com.edu.ulab.benchmark;
+
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.TaggedUserBookResponse;
+import com.edu.ulab.app.web.response.UserBookPageResponse;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Операции {@link UserDataFacade} поверх каждой реализации сервисов: JdbcTemplate, JPA и хранилища в памяти.
+ * Кэш отключён, чтобы измерять сами реализации.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserDataFacadeBenchmark {
+    private static final int SEEDED_USERS = 1_000;
+
+    @Param({"template", "jpa", "memory"})
+    String storageType;
+
+    @Param({"5"})
+    int booksPerUser;
+
+    private final AtomicLong titleSequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private UserDataFacade facade;
+    private List<Long> seededUserIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PostgresFixture.startApplication(storageType);
+        facade = context.getBean(UserDataFacade.class);
+        seededUserIds = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            seededUserIds.add(facade.createUserWithBooks(newRequest()).getUserId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        facade.deleteUsersWithBooks(seededUserIds);
+        context.close();
+    }
+
+    @Benchmark
+    public TaggedUserBookResponse getUserWithBooks() {
+        Long userId = seededUserIds.get(ThreadLocalRandom.current().nextInt(seededUserIds.size()));
+        return facade.getUserWithBooks(userId);
+    }
+
+    @Benchmark
+    public UserBookPageResponse getPage() {
+        return facade.getPage(null, 100);
+    }
+
+    @Benchmark
+    public List<UserBookResponse> getAll() {
+        return facade.getAll();
+    }
+
+    /**
+     * Создание и удаление в одной операции, чтобы размер таблиц не рос в ходе измерения.
+     */
+    @Benchmark
+    public UserBookResponse createAndDeleteUserWithBooks() {
+        UserBookResponse created = facade.createUserWithBooks(newRequest());
+        facade.deleteUserWithBooks(created.getUserId());
+        return created;
+    }
+
+    private UserBookRequest newRequest() {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Benchmark User");
+        userRequest.setTitle("reader-" + titleSequence.incrementAndGet());
+        userRequest.setAge(30);
+
+        List<BookRequest> bookRequests = new ArrayList<>(booksPerUser);
+        for (int i = 0; i < booksPerUser; i++) {
+            BookRequest bookRequest = new BookRequest();
+            bookRequest.setTitle("Book " + i);
+            bookRequest.setAuthor("Author " + i);
+            bookRequest.setPageCount(100 + i);
+            bookRequests.add(bookRequest);
+        }
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(bookRequests);
+        return request;
+    }
+}
@@ -0,0 +1,101 @@
+package com.edu.ulab.benchmark;
+
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.repository.UserRepository;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Параллельное обновление небольшого числа "горячих" пользователей: оптимистичная блокировка с повторами
+ * ({@link UserDataFacade#updateUser}, каждая попытка в новой транзакции) против прежнего варианта с {@code SELECT ... FOR UPDATE}
+ * ({@link UserRepository#findByIdForUpdate}) в транзакции. Чем меньше {@code hotUsers}, тем выше конкуренция.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class UserUpdateContentionBenchmark {
+    @Param({"template", "jpa"})
+    String storageType;
+
+    @Param({"1", "16"})
+    int hotUsers;
+
+    private ConfigurableApplicationContext context;
+    private UserDataFacade facade;
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // повторов должно хватать на любую конкуренцию, иначе JMH прервёт измерение на первом исключении
+        context = PostgresFixture.startApplication(storageType, Map.of("app.retry.max-attempts", "1000"));
+        facade = context.getBean(UserDataFacade.class);
+        userRepository = context.getBean(UserRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        userIds = new ArrayList<>(hotUsers);
+        for (int i = 0; i < hotUsers; i++) {
+            UserRequest userRequest = new UserRequest();
+            userRequest.setFullName("Contention User");
+            userRequest.setTitle("contention-" + i);
+            userRequest.setAge(30);
+
+            UserBookRequest request = new UserBookRequest();
+            request.setUserRequest(userRequest);
+            request.setBookRequests(List.of());
+            userIds.add(facade.createUserWithBooks(request).getUserId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        facade.deleteUsersWithBooks(userIds);
+        context.close();
+    }
+
+    @Benchmark
+    public UserBookResponse optimistic() {
+        Long userId = randomUserId();
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Contention User");
+        userRequest.setTitle("contention-" + userIds.indexOf(userId));
+        userRequest.setAge(ThreadLocalRandom.current().nextInt(18, 99));
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of());
+        return facade.updateUser(request, userId);
+    }
+
+    @Benchmark
+    public Person pessimistic() {
+        Long userId = randomUserId();
+        int age = ThreadLocalRandom.current().nextInt(18, 99);
+        return transactionTemplate.execute(status -> {
+            Person person = userRepository.findByIdForUpdate(userId).orElseThrow();
+            person.setAge(age);
+            return userRepository.save(person);
+        });
+    }
+
+    private Long randomUserId() {
+        return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.edu.ulab.app.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Кэши приложения. Размер, TTL и сбор статистики задаются в {@code spring.cache.caffeine.spec},
+ * статистика попаданий, промахов и вытеснений доступна через actuator ({@code /actuator/metrics/cache.*}).
+ * Кэш проверяется до открытия транзакции, поэтому попадание не занимает соединение.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    /**
+     * Пользователь со списком идентификаторов книг по ID пользователя.
+     */
+    public static final String USER_WITH_BOOKS_CACHE = "userWithBooks";
+}
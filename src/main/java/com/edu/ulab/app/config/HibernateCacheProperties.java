@@ -0,0 +1,24 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Размер и время жизни регионов кэша второго уровня Hibernate ({@code app.l2-cache.regions.<регион>}).
+ * Регионы без настроек (например, метки обновления таблиц) создаются без ограничений.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.l2-cache")
+public class HibernateCacheProperties {
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,44 @@
+package com.edu.ulab.app.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * При {@code app.storage.type=memory} отключает автоконфигурацию БД: источник данных, JPA и Liquibase.
+ * Хранилище в памяти им не пользуется, и приложение стартует без PostgreSQL.
+ * Исключения из {@code spring.autoconfigure.exclude}, заданные в настройках, сохраняются.
+ */
+public class MemoryStorageEnvironmentPostProcessor implements EnvironmentPostProcessor {
+    private static final String EXCLUDE_PROPERTY = "spring.autoconfigure.exclude";
+
+    private static final String PROPERTY_SOURCE_NAME = "memoryStorage";
+    private static final List<String> DATABASE_AUTO_CONFIGURATIONS = List.of(
+            DataSourceAutoConfiguration.class.getName(),
+            HibernateJpaAutoConfiguration.class.getName(),
+            LiquibaseAutoConfiguration.class.getName());
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!"memory".equals(environment.getProperty("app.storage.type"))) {
+            return;
+        }
+        Set<String> excludes = new LinkedHashSet<>(Arrays.asList(Binder.get(environment)
+                .bind(EXCLUDE_PROPERTY, String[].class)
+                .orElse(new String[0])));
+        excludes.addAll(DATABASE_AUTO_CONFIGURATIONS);
+        environment.getPropertySources()
+                .addFirst(new MapPropertySource(PROPERTY_SOURCE_NAME, Map.of(EXCLUDE_PROPERTY, String.join(",", excludes))));
+    }
+}
@@ -0,0 +1,35 @@
+package com.edu.ulab.app.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Двоичные форматы ответов и запросов, выбираются по заголовкам Accept и Content-Type:
+ * CBOR ({@code application/cbor}), Smile ({@code application/x-jackson-smile}) и Protobuf
+ * ({@code application/x-protobuf}). JSON остаётся форматом по умолчанию. Конвертеры-бины Spring Boot
+ * добавляет ко всем контроллерам; маппер CBOR и Smile строится с теми же настройками, что и JSON.
+ */
+@Configuration
+public class MessageConverterConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public ProtobufJacksonHttpMessageConverter protobufHttpMessageConverter() {
+        return new ProtobufJacksonHttpMessageConverter(new ProtobufMapper());
+    }
+}
@@ -0,0 +1,82 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Protobuf через Jackson: DTO сериализуются по схеме {@code proto/user_book.proto}, где имя сообщения совпадает
+ * с простым именем класса. Классы без сообщения в схеме этим конвертером не обрабатываются.
+ */
+public class ProtobufJacksonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+    public static final String SCHEMA_LOCATION = "proto/user_book.proto";
+
+    private final ProtobufMapper protobufMapper;
+    private final NativeProtobufSchema nativeSchema;
+    private final Map<Class<?>, Optional<ProtobufSchema>> schemas = new ConcurrentHashMap<>();
+
+    public ProtobufJacksonHttpMessageConverter(ProtobufMapper protobufMapper) {
+        super(MediaType.parseMediaType(WebConstant.APPLICATION_PROTOBUF_VALUE));
+        this.protobufMapper = protobufMapper;
+        this.nativeSchema = loadSchema();
+    }
+
+    /**
+     * Схема сообщения для класса или {@code null}, если класса нет в {@code user_book.proto}.
+     */
+    @Nullable
+    public ProtobufSchema schemaFor(Class<?> type) {
+        return schemas.computeIfAbsent(type, key -> nativeSchema.hasMessageType(key.getSimpleName())
+                ? Optional.of(nativeSchema.forType(key.getSimpleName()))
+                : Optional.empty()).orElse(null);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Objects.nonNull(schemaFor(clazz));
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return protobufMapper.readerFor(clazz)
+                    .with(schemaFor(clazz))
+                    .readValue(inputMessage.getBody());
+        } catch (JacksonException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf message: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        byte[] body = protobufMapper.writer(schemaFor(value.getClass())).writeValueAsBytes(value);
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    private static NativeProtobufSchema loadSchema() {
+        try (InputStream input = new ClassPathResource(SCHEMA_LOCATION).getInputStream()) {
+            return ProtobufSchemaLoader.std.loadNative(input, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load protobuf schema " + SCHEMA_LOCATION, e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.edu.ulab.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Повтор операций при конфликте оптимистичной блокировки. Число попыток и задержки между ними
+ * задаются в {@code app.retry.*}, задержка растёт экспоненциально со случайным разбросом,
+ * чтобы конкурирующие запросы не повторялись одновременно.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+    public static final String MAX_ATTEMPTS = "${app.retry.max-attempts:5}";
+    public static final String DELAY = "${app.retry.delay:10}";
+    public static final String MAX_DELAY = "${app.retry.max-delay:200}";
+}
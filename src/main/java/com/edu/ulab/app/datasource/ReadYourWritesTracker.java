@@ -0,0 +1,32 @@
+package com.edu.ulab.app.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Помнит пользователей, изменённых за последние {@code app.datasource.read-your-writes-window}:
+ * их чтение идёт на основную БД, пока изменения могут ещё не дойти до реплик.
+ */
+@Component
+public class ReadYourWritesTracker {
+    private final Cache<Long, Boolean> recentWrites;
+
+    public ReadYourWritesTracker(@Value("${app.datasource.read-your-writes-window:5s}") Duration window) {
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public void markWritten(Long userId) {
+        recentWrites.put(userId, Boolean.TRUE);
+    }
+
+    public boolean isRecentlyWritten(Long userId) {
+        return recentWrites.getIfPresent(userId) != null;
+    }
+}
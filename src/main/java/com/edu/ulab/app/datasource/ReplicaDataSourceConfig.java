@@ -0,0 +1,77 @@
+package com.edu.ulab.app.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Включается, если задана хотя бы одна реплика в {@code app.datasource.replicas}. Без реплик используется
+ * обычный источник данных Spring Boot.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Основная БД: на неё же выполняются миграции Liquibase.
+     */
+    @Bean
+    @LiquibaseDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 DataSourceProperties properties,
+                                 ReplicaDataSourceProperties replicaProperties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaDataSourceProperties.Replica> configured = replicaProperties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            replicas.put("replica-" + i, replicaDataSource(configured.get(i), i, primaryDataSource,
+                    properties, replicaProperties));
+        }
+        log.info("Read-only transactions are routed to {} replicas", replicas.size());
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicas, replicaProperties.getEjectionPeriod()));
+    }
+
+    private static HikariDataSource replicaDataSource(ReplicaDataSourceProperties.Replica replica,
+                                                      int index,
+                                                      HikariDataSource primary,
+                                                      DataSourceProperties properties,
+                                                      ReplicaDataSourceProperties replicaProperties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-" + index);
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(Objects.isNull(replica.getUsername()) ? properties.determineUsername() : replica.getUsername());
+        dataSource.setPassword(Objects.isNull(replica.getPassword()) ? properties.determinePassword() : replica.getPassword());
+        dataSource.setMaximumPoolSize(primary.getMaximumPoolSize());
+        dataSource.setDataSourceProperties(primary.getDataSourceProperties());
+        dataSource.setConnectionTimeout(replicaProperties.getConnectionTimeout().toMillis());
+        dataSource.setReadOnly(true);
+        // недоступная при старте реплика не должна мешать запуску: она будет исключена при первом обращении
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+}
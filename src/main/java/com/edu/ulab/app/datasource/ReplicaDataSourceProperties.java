@@ -0,0 +1,35 @@
+package com.edu.ulab.app.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реплики для read-only транзакций ({@code app.datasource.*}). Логин и пароль по умолчанию берутся
+ * из {@code spring.datasource}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource")
+public class ReplicaDataSourceProperties {
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * На сколько реплика исключается из ротации после ошибки подключения.
+     */
+    private Duration ejectionPeriod = Duration.ofSeconds(30);
+
+    /**
+     * Сколько ждать соединения с репликой, прежде чем считать её недоступной.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
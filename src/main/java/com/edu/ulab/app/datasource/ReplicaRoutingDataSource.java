@@ -0,0 +1,122 @@
+package com.edu.ulab.app.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Направляет read-only транзакции, разрешённые через {@link RoutingContext#onReplica}, на реплики по кругу,
+ * всё остальное - на основную БД.
+ * <p>
+ * Реплика, к которой не удалось подключиться, исключается из ротации на {@code ejectionPeriod}, запрос при этом
+ * уходит на следующую реплику, а если исправных не осталось - на основную БД. По истечении периода реплика снова
+ * получает запросы, и первая же ошибка подключения исключает её повторно.
+ * <p>
+ * Признак read-only выставляется после того, как менеджер транзакций запросил соединение, поэтому источник
+ * должен использоваться через {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final long ejectionNanos;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration ejectionPeriod) {
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        this.replicas = new ArrayList<>(replicas.size());
+        replicas.keySet().forEach(name -> this.replicas.add(new Replica(name)));
+        this.ejectionNanos = ejectionPeriod.toNanos();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty()
+                || !RoutingContext.isReplicaAllowed()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        long now = System.nanoTime();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isAvailable(now)) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Каждая неудачная попытка исключает одну реплику, поэтому цикл завершается не позже чем на основной БД.
+     */
+    private Connection getConnection(ConnectionFactory factory) throws SQLException {
+        while (true) {
+            Object key = determineCurrentLookupKey();
+            DataSource target = getResolvedDataSources().get(key);
+            if (PRIMARY.equals(key)) {
+                return factory.getConnection(target);
+            }
+            try {
+                return factory.getConnection(target);
+            } catch (SQLException e) {
+                eject(key, e);
+            }
+        }
+    }
+
+    private void eject(Object key, SQLException cause) {
+        for (Replica replica : replicas) {
+            if (replica.name.equals(key)) {
+                replica.ejectedUntil = System.nanoTime() + ejectionNanos;
+                log.warn("Replica {} is ejected for {} ms: {}", key, ejectionNanos / 1_000_000, cause.getMessage());
+                return;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionFactory {
+        Connection getConnection(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private volatile long ejectedUntil = System.nanoTime();
+
+        private Replica(String name) {
+            this.name = name;
+        }
+
+        private boolean isAvailable(long now) {
+            return now - ejectedUntil >= 0;
+        }
+    }
+}
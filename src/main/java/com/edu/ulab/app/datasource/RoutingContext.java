@@ -0,0 +1,34 @@
+package com.edu.ulab.app.datasource;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.function.Supplier;
+
+/**
+ * Разрешение читать с реплики для текущего потока. По умолчанию все запросы идут на основную БД:
+ * Spring Data выполняет любые чтения репозиториев в read-only транзакциях, в том числе перечитывание
+ * внутри операций записи, поэтому одного признака read-only для выбора реплики недостаточно.
+ */
+@UtilityClass
+public class RoutingContext {
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public static boolean isReplicaAllowed() {
+        return REPLICA_ALLOWED.get();
+    }
+
+    /**
+     * Выполняет {@code action}, разрешая read-only транзакциям внутри него читать с реплики.
+     * Соединение должно запрашиваться уже внутри {@code action}, поэтому маршрутизирующий источник
+     * оборачивается в {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+     */
+    public static <T> T onReplica(Supplier<T> action) {
+        boolean previous = REPLICA_ALLOWED.get();
+        REPLICA_ALLOWED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            REPLICA_ALLOWED.set(previous);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.edu.ulab.app.entity;
 
+import com.edu.ulab.app.id.AllocatorIdGenerator;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 
@@ -10,10 +14,21 @@ import javax.persistence.*;
 @AllArgsConstructor
 @Entity
 @Table(name = "book", schema = "ulab_edu")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
 public class Book {
+    /**
+     * Регион кэша второго уровня для книг.
+     */
+    public static final String CACHE_REGION = "book";
+
+    /**
+     * Регион кэша запроса книг пользователя {@code BookRepository.findByPersonId}.
+     */
+    public static final String BY_PERSON_ID_QUERY_REGION = "book.byPersonId";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequence")
-    @SequenceGenerator(name = "sequence", sequenceName = "sequence", allocationSize = 100)
+    @GeneratedValue(generator = AllocatorIdGenerator.NAME)
+    @GenericGenerator(name = AllocatorIdGenerator.NAME, strategy = AllocatorIdGenerator.STRATEGY)
     private Long id;
 
     @Column(nullable = false)
@@ -25,6 +40,10 @@ public class Book {
     @Column(nullable = false)
     private long pageCount;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "person_id", nullable = false)
     @ToString.Exclude
@@ -1,9 +1,14 @@
 package com.edu.ulab.app.entity;
 
+import com.edu.ulab.app.id.AllocatorIdGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 import java.util.Set;
@@ -14,10 +19,23 @@ import java.util.Set;
 @AllArgsConstructor
 @Entity
 @Table(name = "person", schema = "ulab_edu")
+@BatchSize(size = Person.BATCH_SIZE)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Person.CACHE_REGION)
 public class Person {
+    /**
+     * Регионы кэша второго уровня: пользователи и коллекции их книг.
+     */
+    public static final String CACHE_REGION = "person";
+    public static final String BOOKS_CACHE_REGION = "person.books";
+
+    /**
+     * Сколько ленивых пользователей (или их коллекций книг) догружается одним запросом при обходе.
+     */
+    public static final int BATCH_SIZE = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequence")
-    @SequenceGenerator(name = "sequence", sequenceName = "sequence", allocationSize = 100)
+    @GeneratedValue(generator = AllocatorIdGenerator.NAME)
+    @GenericGenerator(name = AllocatorIdGenerator.NAME, strategy = AllocatorIdGenerator.STRATEGY)
     private Long id;
 
     @Column(nullable = false)
@@ -29,6 +47,10 @@ public class Person {
     @Column(nullable = false)
     private int age;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
 //    @Column(nullable = false)
 //    private String city;
 
@@ -37,6 +59,8 @@ public class Person {
             CascadeType.PERSIST,
             CascadeType.DETACH,
             CascadeType.REFRESH})
+    @BatchSize(size = BATCH_SIZE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = BOOKS_CACHE_REGION)
     private Set<Book> bookSet;
 
 }
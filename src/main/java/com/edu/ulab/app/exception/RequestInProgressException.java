@@ -0,0 +1,10 @@
+package com.edu.ulab.app.exception;
+
+/**
+ * Запрос с тем же rqid ещё выполняется, и его ответ не дождались.
+ */
+public class RequestInProgressException extends RuntimeException {
+    public RequestInProgressException(String message) {
+        super(message);
+    }
+}
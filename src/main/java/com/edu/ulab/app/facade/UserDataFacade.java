@@ -1,39 +1,88 @@
 package com.edu.ulab.app.facade;
 
+import com.edu.ulab.app.datasource.ReadYourWritesTracker;
+import com.edu.ulab.app.datasource.RoutingContext;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.mapper.UserMapper;
-import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
-import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.search.BookSearchField;
+import com.edu.ulab.app.search.BookSearchIndex;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserBookExportService;
+import com.edu.ulab.app.service.UserBookImportService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.pagination.CursorCodec;
 import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.BookSearchPageResponse;
+import com.edu.ulab.app.web.response.BookSearchResponse;
+import com.edu.ulab.app.web.response.TaggedUserBookResponse;
+import com.edu.ulab.app.web.response.UserBookImportResponse;
+import com.edu.ulab.app.web.response.UserBookPageResponse;
 import com.edu.ulab.app.web.response.UserBookResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
+
+import static com.edu.ulab.app.config.CacheConfig.USER_WITH_BOOKS_CACHE;
+import static com.edu.ulab.app.config.RetryConfig.*;
 
 @Slf4j
 @Component
 public class UserDataFacade {
-    private final UserServiceImplTemplate userService;
-    private final BookServiceImplTemplate bookService;
+    private static final long[] NO_BOOKS = new long[0];
+
+    private final UserService userService;
+    private final BookService bookService;
+    private final UserBookExportService userBookExportService;
+    private final UserBookImportService userBookImportService;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final BookSearchIndex bookSearchIndex;
     private final UserMapper userMapper;
     private final BookMapper bookMapper;
 
-    public UserDataFacade(UserServiceImplTemplate userService,
-                          BookServiceImplTemplate bookService,
+    public UserDataFacade(UserService userService,
+                          BookService bookService,
+                          UserBookExportService userBookExportService,
+                          UserBookImportService userBookImportService,
+                          ReadYourWritesTracker readYourWritesTracker,
+                          BookSearchIndex bookSearchIndex,
                           UserMapper userMapper,
                           BookMapper bookMapper) {
         this.userService = userService;
         this.bookService = bookService;
+        this.userBookExportService = userBookExportService;
+        this.userBookImportService = userBookImportService;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.bookSearchIndex = bookSearchIndex;
         this.userMapper = userMapper;
         this.bookMapper = bookMapper;
     }
 
+    /**
+     * Пользователь и его книги создаются в одной транзакции: при ошибке на любой книге не остаётся
+     * пользователя без части книг, а вставки фиксируются одним коммитом.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = USER_WITH_BOOKS_CACHE, key = "#result.userId")
     public UserBookResponse createUserWithBooks(UserBookRequest userBookRequest) {
         if (Objects.isNull(userBookRequest.getUserRequest()) || Objects.isNull(userBookRequest.getBookRequests())) {
             throw new IllegalArgumentException(String.format("UserRequest is %s, BookRequest is %s",
@@ -45,18 +94,21 @@ public class UserDataFacade {
 
         UserDto createdUser = userService.createUser(userDto);
         log.info("Created user: {}", createdUser);
+        readYourWritesTracker.markWritten(createdUser.getId());
 
-        List<Long> bookIdList = userBookRequest.getBookRequests()
+        List<BookDto> bookDtoList = userBookRequest.getBookRequests()
                 .stream()
                 .filter(Objects::nonNull)
                 .map(bookMapper::bookRequestToBookDto)
                 .peek(bookDto -> bookDto.setUserId(createdUser.getId()))
-                .peek(mappedBookDto -> log.info("Mapped book: {}", mappedBookDto))
-                .map(bookService::createBook)
-                .peek(createdBook -> log.info("Created book: {}", createdBook))
-                .map(BookDto::getId)
                 .toList();
-        log.info("Collected book IDs: {}", bookIdList);
+        log.info("Mapped {} books", bookDtoList.size());
+
+        long[] bookIdList = bookService.createBooks(bookDtoList)
+                .stream()
+                .mapToLong(BookDto::getId)
+                .toArray();
+        log.info("Collected {} book IDs", bookIdList.length);
 
         return UserBookResponse.builder()
                 .userId(createdUser.getId())
@@ -64,6 +116,15 @@ public class UserDataFacade {
                 .build();
     }
 
+    /**
+     * Обновление пользователя и добавление книг в одной транзакции. Конфликт версий пользователя повторяется
+     * здесь, снаружи транзакции: каждая попытка идёт в новой транзакции, а не в уже помеченной на откат.
+     */
+    @Retryable(include = OptimisticLockingFailureException.class,
+            maxAttemptsExpression = MAX_ATTEMPTS,
+            backoff = @Backoff(delayExpression = DELAY, maxDelayExpression = MAX_DELAY, multiplier = 2, random = true))
+    @Transactional
+    @CacheEvict(cacheNames = USER_WITH_BOOKS_CACHE, key = "#userId")
     public UserBookResponse updateUser(UserBookRequest userBookRequest, Long userId) {
         if (Objects.isNull(userBookRequest.getUserRequest()) || Objects.isNull(userBookRequest.getBookRequests())) {
             throw new IllegalArgumentException(String.format("UserRequest is %s, BookRequest is %s",
@@ -73,27 +134,26 @@ public class UserDataFacade {
         UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
         log.info("Mapped user request: {}", userDto);
 
+        readYourWritesTracker.markWritten(userId);
         UserDto updatedUser = userService.updateUser(userDto, userId);
         log.info("Updated user: {}", updatedUser);
 
-        List<Long> addedBooks = userBookRequest.getBookRequests()
+        List<BookDto> bookDtoList = userBookRequest.getBookRequests()
                 .stream()
                 .filter(Objects::nonNull)
                 .map(bookMapper::bookRequestToBookDto)
                 .peek(bookDto -> bookDto.setUserId(userId))
-                .peek(mappedBookDto -> log.info("Mapped book: {}", mappedBookDto))
-                .map(bookService::createBook)
-                .peek(createdBook -> log.info("Created book: {}", createdBook))
-                .filter(Objects::nonNull)
-                .map(BookDto::getId)
                 .toList();
-        log.info("IDs of added books: {}", addedBooks);
+        log.info("Mapped {} books", bookDtoList.size());
 
-        List<Long> bookIdList = bookService.getBooksByUserId(userId)
+        List<Long> addedBooks = bookService.createBooks(bookDtoList)
                 .stream()
                 .map(BookDto::getId)
                 .toList();
-        log.info("Collected book IDs: {}", bookIdList);
+        log.info("IDs of added books: {}", addedBooks);
+
+        long[] bookIdList = bookService.getBookIdsByUserId(userId);
+        log.info("Collected {} book IDs", bookIdList.length);
 
         return UserBookResponse.builder()
                 .userId(userId)
@@ -101,45 +161,171 @@ public class UserDataFacade {
                 .build();
     }
 
-    public UserBookResponse getUserWithBooks(Long userId) {
+    /**
+     * Читается с реплики, если пользователь не изменялся только что: иначе реплика может ещё не получить изменения.
+     * Тег кэшируется вместе с ответом, так что попадание в кэш отвечает и 200, и 304 без обращения к БД.
+     */
+    @Cacheable(cacheNames = USER_WITH_BOOKS_CACHE, key = "#userId")
+    @Transactional(readOnly = true)
+    public TaggedUserBookResponse getUserWithBooks(Long userId) {
+        if (readYourWritesTracker.isRecentlyWritten(userId)) {
+            log.info("User with ID: {} was recently changed, reading from primary", userId);
+            return loadUserWithBooks(userId);
+        }
+        return RoutingContext.onReplica(() -> loadUserWithBooks(userId));
+    }
+
+    /**
+     * Сильный ETag строится по версии пользователя и хэшу всего списка ID его книг из той же загрузки, что и тело:
+     * список книг меняется без изменения версии пользователя, а ID из блоков разных экземпляров не монотонны,
+     * поэтому по числу книг или последнему ID замену книги не отличить.
+     */
+    private TaggedUserBookResponse loadUserWithBooks(Long userId) {
         UserDto userDto = userService.getUserById(userId);
         if (Objects.isNull(userDto)) {
             throw new NotFoundException("User with id: " + userId + " not found");
         }
         log.info("Got userDto: {}", userDto);
-        List<Long> bookIdList = bookService.getBooksByUserId(userId)
-                .stream()
-                .map(BookDto::getId)
-                .toList();
-        log.info("Collected book IDs: {}", bookIdList);
-        return UserBookResponse.builder()
-                .userId(userDto.getId())
-                .booksIdList(bookIdList)
+        long[] bookIdList = bookService.getBookIdsByUserId(userId);
+        log.info("Collected {} book IDs", bookIdList.length);
+        return TaggedUserBookResponse.builder()
+                .response(UserBookResponse.builder()
+                        .userId(userDto.getId())
+                        .booksIdList(bookIdList)
+                        .build())
+                .eTag("\"" + userDto.getVersion() + "-" + hash(bookIdList) + "\"")
                 .build();
     }
 
+    private static String hash(long[] bookIdList) {
+        ByteBuffer buffer = ByteBuffer.allocate(bookIdList.length * Long.BYTES);
+        buffer.asLongBuffer().put(bookIdList);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(buffer.array());
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<UserBookResponse> getAll() {
-        Collection<UserDto> allUsers = userService.findAll();
-        log.info("Get all users: {}", allUsers);
-        return allUsers.stream()
+        return RoutingContext.onReplica(() -> {
+            Collection<UserDto> allUsers = userService.findAll();
+            log.info("Got {} users", allUsers.size());
+            return toUserBookResponses(allUsers);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public UserBookPageResponse getPage(String cursor, int limit) {
+        return RoutingContext.onReplica(() -> loadPage(cursor, limit));
+    }
+
+    private UserBookPageResponse loadPage(String cursor, int limit) {
+        long afterId = CursorCodec.decode(cursor);
+        List<UserDto> users = new ArrayList<>(userService.findPage(afterId, limit + 1));
+        boolean hasNext = users.size() > limit;
+        if (hasNext) {
+            users = users.subList(0, limit);
+        }
+        log.info("Got {} users after ID: {}", users.size(), afterId);
+
+        List<UserBookResponse> content = toUserBookResponses(users);
+        return UserBookPageResponse.builder()
+                .content(content)
+                .nextCursor(hasNext ? CursorCodec.encode(users.get(users.size() - 1).getId()) : null)
+                .build();
+    }
+
+    /**
+     * Поиск книг по словам названия и автора в индексе в памяти, без обращения к БД.
+     * Страницы идут по возрастанию ID книги, курсор - ID последней книги страницы.
+     */
+    public BookSearchPageResponse searchBooks(String query, BookSearchField field, String cursor, int limit) {
+        long afterId = CursorCodec.decode(cursor);
+        List<BookDto> books = bookSearchIndex.search(query, field, afterId, limit + 1);
+        boolean hasNext = books.size() > limit;
+        if (hasNext) {
+            books = books.subList(0, limit);
+        }
+        log.info("Found {} books by query '{}' in {} after ID: {}", books.size(), query, field, afterId);
+
+        List<BookSearchResponse> content = books.stream()
+                .map(book -> BookSearchResponse.builder()
+                        .id(book.getId())
+                        .userId(book.getUserId())
+                        .title(book.getTitle())
+                        .author(book.getAuthor())
+                        .pageCount(book.getPageCount())
+                        .build())
+                .toList();
+        return BookSearchPageResponse.builder()
+                .content(content)
+                .nextCursor(hasNext ? CursorCodec.encode(books.get(books.size() - 1).getId()) : null)
+                .build();
+    }
+
+    /**
+     * Потоково передаёт всех пользователей с книгами в {@code consumer}, не собирая их в список.
+     */
+    public void exportAll(Consumer<UserBookResponse> consumer) {
+        RoutingContext.onReplica(() -> {
+            userBookExportService.exportAll(consumer);
+            return null;
+        });
+    }
+
+    /**
+     * Массовая загрузка новых пользователей с книгами. Кэш не затрагивается: загружаются только новые пользователи.
+     */
+    public UserBookImportResponse importAll(Iterator<UserBookRequest> requests) {
+        return userBookImportService.importAll(requests);
+    }
+
+    private List<UserBookResponse> toUserBookResponses(Collection<UserDto> users) {
+        List<Long> userIds = users.stream()
                 .filter(Objects::nonNull)
-                .map(userDto -> UserBookResponse
+                .map(UserDto::getId)
+                .toList();
+        Map<Long, long[]> bookIdsByUserId = bookService.getBookIdsByUserIds(userIds);
+        return userIds.stream()
+                .map(userId -> UserBookResponse
                         .builder()
-                        .userId(userDto.getId())
-                        .booksIdList(
-                                bookService.getBooksByUserId(userDto.getId())
-                                        .stream()
-                                        .map(BookDto::getId)
-                                        .toList())
+                        .userId(userId)
+                        .booksIdList(bookIdsByUserId.getOrDefault(userId, NO_BOOKS))
                         .build())
                 .toList();
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = USER_WITH_BOOKS_CACHE, key = "#userId")
     public void deleteUserWithBooks(Long userId) {
-        bookService.getBooksByUserId(userId)
-                .forEach(bookDto -> bookService.deleteBookById(bookDto.getId()));
+        readYourWritesTracker.markWritten(userId);
+        int deletedBooks = bookService.deleteBooksByUserIds(List.of(userId));
         userService.deleteUserById(userId);
-        log.info("Deleted user with ID: {}", userId);
+        log.info("Deleted user with ID: {} and {} books", userId, deletedBooks);
+    }
+
+    /**
+     * Удаляет пользователей вместе с книгами: по одному запросу на таблицу в одной транзакции.
+     * Кэш сбрасывается целиком, так как массовое удаление выполняется редко.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = USER_WITH_BOOKS_CACHE, allEntries = true)
+    public int deleteUsersWithBooks(Collection<Long> userIds) {
+        if (Objects.isNull(userIds) || userIds.isEmpty()) {
+            throw new IllegalArgumentException("User IDs for delete are empty");
+        }
+        List<Long> distinctIds = userIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        distinctIds.forEach(readYourWritesTracker::markWritten);
+        int deletedBooks = bookService.deleteBooksByUserIds(distinctIds);
+        int deletedUsers = userService.deleteUsersByIds(distinctIds);
+        log.info("Deleted {} users and {} books", deletedUsers, deletedBooks);
+        return deletedUsers;
     }
 }
 
@@ -0,0 +1,28 @@
+package com.edu.ulab.app.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+
+/**
+ * Генератор идентификаторов Hibernate, делегирующий в общий {@link IdAllocator}.
+ * <p>
+ * Hibernate создаёт генератор через контейнер бинов Spring ({@code SpringBeanContainer}), поэтому аллокатор
+ * внедряется из того же контекста, что и фабрика сессий.
+ */
+public class AllocatorIdGenerator implements IdentifierGenerator {
+    public static final String NAME = "allocator";
+    public static final String STRATEGY = "com.edu.ulab.app.id.AllocatorIdGenerator";
+
+    private final IdAllocator idAllocator;
+
+    public AllocatorIdGenerator(IdAllocator idAllocator) {
+        this.idAllocator = idAllocator;
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return idAllocator.nextId();
+    }
+}
@@ -0,0 +1,109 @@
+package com.edu.ulab.app.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.edu.ulab.app.web.constant.SQLQuerySequenceConstant.NEXT_VALUES_SQL;
+import static com.edu.ulab.app.web.constant.SQLQuerySequenceConstant.NEXT_VALUE_SQL;
+
+/**
+ * Выдаёт идентификаторы пользователей и книг по схеме hi/lo поверх последовательности {@code sequence}.
+ * <p>
+ * Одно обращение к последовательности резервирует блок {@code [hi * BLOCK_SIZE, (hi + 1) * BLOCK_SIZE)},
+ * идентификаторы внутри блока выдаются без блокировок через {@link AtomicLong}. Схема совпадает
+ * с прежним генератором Hibernate ({@code allocationSize = 100}), поэтому уже выданные идентификаторы не пересекаются
+ * с новыми; по той же причине размер блока не настраивается. Используется и JDBC-, и JPA-реализацией
+ * (через {@link AllocatorIdGenerator}), что позволяет вставлять записи пачками с заранее известными идентификаторами.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${app.storage.type:template}' != 'memory'")
+public class IdAllocator {
+    /**
+     * Размер блока, которым выданы уже существующие идентификаторы.
+     */
+    public static final int BLOCK_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+
+    public IdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long nextId() {
+        while (true) {
+            Block block = current.get();
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            reserve(block);
+        }
+    }
+
+    public long[] nextIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = nextId();
+        }
+        return ids;
+    }
+
+    /**
+     * Резервирует идентификаторы для массовой вставки: все нужные блоки берутся из последовательности
+     * одним запросом, текущий общий блок не затрагивается.
+     */
+    public long[] reserveIds(int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        if (blocks > 0) {
+            List<Long> his = jdbcTemplate.queryForList(NEXT_VALUES_SQL, Long.class, blocks);
+            for (long hi : his) {
+                long start = hi * BLOCK_SIZE;
+                for (long id = hi == 0 ? 1 : start; id < start + BLOCK_SIZE && filled < count; id++) {
+                    ids[filled++] = id;
+                }
+            }
+            log.debug("Reserved {} blocks for {} IDs", his.size(), count);
+        }
+        while (filled < count) {
+            ids[filled++] = nextId();
+        }
+        return ids;
+    }
+
+    /**
+     * Медленный путь: блок исчерпан. Новый блок резервирует только один поток, остальные
+     * ждут на мониторе и затем берут идентификаторы из уже заменённого блока.
+     */
+    private synchronized void reserve(Block exhausted) {
+        if (current.get() != exhausted) {
+            return;
+        }
+        long hi = Objects.requireNonNull(jdbcTemplate.queryForObject(NEXT_VALUE_SQL, Long.class));
+        long start = hi * BLOCK_SIZE;
+        current.set(new Block(hi == 0 ? 1 : start, start + BLOCK_SIZE));
+        log.debug("Reserved IDs [{}, {})", start, start + BLOCK_SIZE);
+    }
+
+    private static final class Block {
+        private static final Block EMPTY = new Block(0, 0);
+
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
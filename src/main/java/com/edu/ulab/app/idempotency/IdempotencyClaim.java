@@ -0,0 +1,35 @@
+package com.edu.ulab.app.idempotency;
+
+import com.edu.ulab.app.web.response.UserBookResponse;
+
+import java.time.Instant;
+
+/**
+ * Результат попытки занять идентификатор запроса.
+ *
+ * @param status      занят ли ключ текущим запросом, выполняется ли другим или уже выполнен
+ * @param requestHash хэш тела запроса, которым занят ключ
+ * @param response    сохранённый ответ, только для {@link Status#COMPLETED}
+ * @param claimedAt   время занятия ключа, только для {@link Status#ACQUIRED}: по нему сохраняется ответ
+ *                    и освобождается ключ, чтобы не задеть ключ, перехваченный другим запросом
+ */
+public record IdempotencyClaim(Status status, String requestHash, UserBookResponse response, Instant claimedAt) {
+
+    public enum Status {
+        ACQUIRED,
+        PENDING,
+        COMPLETED
+    }
+
+    public static IdempotencyClaim acquired(String requestHash, Instant claimedAt) {
+        return new IdempotencyClaim(Status.ACQUIRED, requestHash, null, claimedAt);
+    }
+
+    public static IdempotencyClaim pending(String requestHash) {
+        return new IdempotencyClaim(Status.PENDING, requestHash, null, null);
+    }
+
+    public static IdempotencyClaim completed(String requestHash, UserBookResponse response) {
+        return new IdempotencyClaim(Status.COMPLETED, requestHash, response, null);
+    }
+}
@@ -0,0 +1,27 @@
+package com.edu.ulab.app.idempotency;
+
+import com.edu.ulab.app.web.response.UserBookResponse;
+
+/**
+ * Хранилище ключей идемпотентности создания пользователя по идентификатору запроса.
+ * Ключ сначала занимается запросом, затем получает ответ. Выполненные ключи живут {@code app.idempotency.ttl}.
+ */
+public interface IdempotencyStore {
+    /**
+     * Занимает ключ за текущим запросом, если он свободен, иначе возвращает его состояние.
+     */
+    IdempotencyClaim claim(String requestId, String requestHash);
+
+    /**
+     * Сохраняет ответ занятого ключа. Вызывается в транзакции создания, так что ответ фиксируется
+     * вместе с пользователем или не фиксируется совсем.
+     *
+     * @throws IllegalStateException если ключ за это время перехватил другой запрос
+     */
+    void complete(String requestId, IdempotencyClaim claim, UserBookResponse response);
+
+    /**
+     * Освобождает занятый ключ после ошибки, чтобы повтор выполнился заново.
+     */
+    void release(String requestId, IdempotencyClaim claim);
+}
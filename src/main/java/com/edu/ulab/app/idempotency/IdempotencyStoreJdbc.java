@@ -0,0 +1,136 @@
+package com.edu.ulab.app.idempotency;
+
+import com.edu.ulab.app.web.response.UserBookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.edu.ulab.app.web.constant.SQLQueryIdempotencyConstant.*;
+
+/**
+ * Ключи хранятся в таблице {@code idempotency_key}, поэтому повтор узнаётся любым экземпляром приложения.
+ * <p>
+ * Ключ занимается вставкой строки без ответа до начала создания. Ответ записывается в транзакции создания
+ * условным UPDATE: если ключ за это время перехватили, создание откатывается. Занятый ключ, ответ на который
+ * не пришёл за {@code app.idempotency.wait-timeout}, считается брошенным (экземпляр упал) и может быть перехвачен.
+ * Просроченные записи удаляются при занятии ключа, не чаще раза в {@code app.idempotency.purge-interval}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "db")
+public class IdempotencyStoreJdbc implements IdempotencyStore {
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final long purgeIntervalMillis;
+    private final AtomicLong nextPurgeMillis = new AtomicLong();
+
+    public IdempotencyStoreJdbc(JdbcTemplate jdbcTemplate,
+                                @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                                @Value("${app.idempotency.wait-timeout:30s}") Duration claimTimeout,
+                                @Value("${app.idempotency.purge-interval:10m}") Duration purgeInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+        this.purgeIntervalMillis = purgeInterval.toMillis();
+    }
+
+    @Override
+    public IdempotencyClaim claim(String requestId, String requestHash) {
+        // точность timestamp в PostgreSQL - микросекунды, время занятия потом сравнивается на равенство
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        purgeExpired(now);
+        if (jdbcTemplate.update(CLAIM_SQL, requestId, requestHash, Timestamp.from(now)) == 1) {
+            return IdempotencyClaim.acquired(requestHash, now);
+        }
+        List<StoredKey> keys = jdbcTemplate.query(SELECT_BY_REQUEST_ID_SQL,
+                (rs, rowNum) -> new StoredKey(rs.getString(1),
+                        Objects.isNull(rs.getArray(3)) ? null : UserBookResponse.builder()
+                                .userId(rs.getLong(2))
+                                .booksIdList(toLongArray(rs.getArray(3)))
+                                .build(),
+                        rs.getTimestamp(4).toInstant()),
+                requestId);
+        if (keys.isEmpty()) {
+            // ключ только что освободили: повтор попробует занять его снова
+            return IdempotencyClaim.pending(requestHash);
+        }
+        StoredKey key = keys.get(0);
+        Duration lifetime = Objects.isNull(key.response()) ? claimTimeout : ttl;
+        if (!key.createdAt().isAfter(now.minus(lifetime))) {
+            if (jdbcTemplate.update(TAKE_OVER_SQL, requestHash, Timestamp.from(now), requestId,
+                    Timestamp.from(key.createdAt())) == 1) {
+                log.info("Took over {} idempotency key {}", Objects.isNull(key.response()) ? "abandoned" : "expired",
+                        requestId);
+                return IdempotencyClaim.acquired(requestHash, now);
+            }
+            return IdempotencyClaim.pending(requestHash);
+        }
+        return Objects.isNull(key.response())
+                ? IdempotencyClaim.pending(key.requestHash())
+                : IdempotencyClaim.completed(key.requestHash(), key.response());
+    }
+
+    @Override
+    public void complete(String requestId, IdempotencyClaim claim, UserBookResponse response) {
+        int updated = jdbcTemplate.update(COMPLETE_SQL, ps -> {
+            ps.setLong(1, response.getUserId());
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", boxed(response.getBooksIdList())));
+            ps.setTimestamp(3, Timestamp.from(Instant.now()));
+            ps.setString(4, requestId);
+            ps.setTimestamp(5, Timestamp.from(claim.claimedAt()));
+        });
+        if (updated == 0) {
+            throw new IllegalStateException("Idempotency key " + requestId + " was taken over by another request");
+        }
+    }
+
+    @Override
+    public void release(String requestId, IdempotencyClaim claim) {
+        jdbcTemplate.update(RELEASE_SQL, requestId, Timestamp.from(claim.claimedAt()));
+    }
+
+    private void purgeExpired(Instant now) {
+        long next = nextPurgeMillis.get();
+        if (now.toEpochMilli() < next || !nextPurgeMillis.compareAndSet(next, now.toEpochMilli() + purgeIntervalMillis)) {
+            return;
+        }
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, Timestamp.from(now.minus(ttl)));
+        log.debug("Purged {} expired idempotency keys", deleted);
+    }
+
+    private static long[] toLongArray(Array array) throws SQLException {
+        Long[] values = (Long[]) array.getArray();
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+
+    private static Long[] boxed(long[] values) {
+        Long[] result = new Long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+
+    /**
+     * Строка ключа; {@code response == null}, пока запрос выполняется.
+     */
+    private record StoredKey(String requestHash, UserBookResponse response, Instant createdAt) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.edu.ulab.app.idempotency;
+
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Ключи хранятся в памяти экземпляра, не больше {@code app.idempotency.max-size} записей.
+ * Ответ записывается после коммита транзакции создания: откаченное создание ответа не оставляет.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class IdempotencyStoreMemory implements IdempotencyStore {
+    private final Cache<String, StoredKey> keys;
+
+    public IdempotencyStoreMemory(@Value("${app.idempotency.ttl:24h}") Duration ttl,
+                                  @Value("${app.idempotency.max-size:100000}") long maxSize) {
+        this.keys = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    @Override
+    public IdempotencyClaim claim(String requestId, String requestHash) {
+        StoredKey claimed = new StoredKey(requestHash, null, Instant.now());
+        StoredKey key = keys.asMap().putIfAbsent(requestId, claimed);
+        if (Objects.isNull(key)) {
+            return IdempotencyClaim.acquired(requestHash, claimed.claimedAt());
+        }
+        return Objects.isNull(key.response())
+                ? IdempotencyClaim.pending(key.requestHash())
+                : IdempotencyClaim.completed(key.requestHash(), key.response());
+    }
+
+    @Override
+    public void complete(String requestId, IdempotencyClaim claim, UserBookResponse response) {
+        Runnable save = () -> keys.asMap().computeIfPresent(requestId,
+                (id, key) -> isClaimedBy(key, claim) ? new StoredKey(key.requestHash(), response, key.claimedAt()) : key);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            save.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                save.run();
+            }
+        });
+    }
+
+    @Override
+    public void release(String requestId, IdempotencyClaim claim) {
+        keys.asMap().computeIfPresent(requestId, (id, key) -> isClaimedBy(key, claim) ? null : key);
+    }
+
+    private static boolean isClaimedBy(StoredKey key, IdempotencyClaim claim) {
+        return Objects.isNull(key.response()) && key.claimedAt().equals(claim.claimedAt());
+    }
+
+    /**
+     * Ключ; {@code response == null}, пока запрос выполняется.
+     */
+    private record StoredKey(String requestHash, UserBookResponse response, Instant claimedAt) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.edu.ulab.app.idempotency;
+
+import com.edu.ulab.app.exception.RequestInProgressException;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import static com.edu.ulab.app.web.constant.WebConstant.REQUEST_ID_PATTERN;
+
+/**
+ * Выполняет создание пользователя не больше одного раза на идентификатор запроса.
+ * <p>
+ * Перед созданием запрос занимает ключ в {@link IdempotencyStore}; ответ записывается в той же транзакции,
+ * что и пользователь, поэтому падение экземпляра после коммита не теряет ключ. Повтор получает сохранённый ответ,
+ * дубликат, пришедший во время выполнения исходного запроса, опрашивает хранилище (не дольше
+ * {@code app.idempotency.wait-timeout}). Ошибка освобождает ключ: ожидающий дубликат выполнит запрос сам.
+ * Пустой rqid и повтор rqid с другим телом запроса отклоняются.
+ */
+@Slf4j
+@Component
+public class IdempotentRequestExecutor {
+    private static final Pattern REQUEST_ID = Pattern.compile(REQUEST_ID_PATTERN);
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final TransactionOperations transactionOperations;
+    private final long waitTimeoutMillis;
+    private final long pollIntervalMillis;
+
+    public IdempotentRequestExecutor(IdempotencyStore idempotencyStore,
+                                     ObjectMapper objectMapper,
+                                     ObjectProvider<PlatformTransactionManager> transactionManager,
+                                     @Value("${app.idempotency.wait-timeout:30s}") Duration waitTimeout,
+                                     @Value("${app.idempotency.poll-interval:50ms}") Duration pollInterval) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        // при хранении в памяти источника данных и менеджера транзакций нет
+        PlatformTransactionManager manager = transactionManager.getIfAvailable();
+        this.transactionOperations = Objects.isNull(manager)
+                ? TransactionOperations.withoutTransaction()
+                : new TransactionTemplate(manager);
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+        this.pollIntervalMillis = pollInterval.toMillis();
+    }
+
+    public UserBookResponse execute(String requestId, Object request, Supplier<UserBookResponse> action) {
+        if (!REQUEST_ID.matcher(requestId).matches()) {
+            throw new IllegalArgumentException("Invalid request id: '" + requestId + "'");
+        }
+        String requestHash = hash(request);
+        long deadline = System.currentTimeMillis() + waitTimeoutMillis;
+        while (true) {
+            IdempotencyClaim claim = idempotencyStore.claim(requestId, requestHash);
+            if (claim.status() == IdempotencyClaim.Status.ACQUIRED) {
+                return executeClaimed(requestId, claim, action);
+            }
+            if (!requestHash.equals(claim.requestHash())) {
+                throw new IllegalArgumentException("Request " + requestId + " was already used with a different body");
+            }
+            if (claim.status() == IdempotencyClaim.Status.COMPLETED) {
+                log.info("Replay of request {}, returning stored response", requestId);
+                return claim.response();
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new RequestInProgressException("Request " + requestId + " is still in progress");
+            }
+            log.debug("Request {} is in flight, waiting for its response", requestId);
+            sleep(requestId);
+        }
+    }
+
+    private UserBookResponse executeClaimed(String requestId, IdempotencyClaim claim,
+                                            Supplier<UserBookResponse> action) {
+        try {
+            return transactionOperations.execute(status -> {
+                UserBookResponse response = action.get();
+                idempotencyStore.complete(requestId, claim, response);
+                return response;
+            });
+        } catch (RuntimeException e) {
+            idempotencyStore.release(requestId, claim);
+            throw e;
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void sleep(String requestId) {
+        try {
+            Thread.sleep(pollIntervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for request " + requestId, e);
+        }
+    }
+}
@@ -13,7 +13,10 @@ public interface BookMapper {
 
     BookRequest bookDtoToBookRequest(BookDto bookDto);
 
+    @Mapping(source = "userId", target = "person.id")
+    @Mapping(target = "version", ignore = true)
     Book bookDtoToBook(BookDto bookDto);
 
+    @Mapping(source = "person.id", target = "userId")
     BookDto bookToBookDto(Book book);
 }
@@ -1,19 +1,38 @@
 package com.edu.ulab.app.mapper;
 
 import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
 import org.springframework.jdbc.core.RowMapper;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+/**
+ * Маппинг строки по индексам колонок из {@link com.edu.ulab.app.web.constant.SQLQueryBookConstant#COLUMNS}:
+ * без рефлексии и поиска колонок по имени. Не хранит состояния, используется через {@link #INSTANCE}.
+ */
 public class BookRowMapper implements RowMapper<Book> {
+    public static final BookRowMapper INSTANCE = new BookRowMapper();
+
+    private static final int ID = 1;
+    private static final int TITLE = 2;
+    private static final int AUTHOR = 3;
+    private static final int PAGE_COUNT = 4;
+    private static final int PERSON_ID = 5;
+    private static final int VERSION = 6;
+
     @Override
     public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
         Book book = new Book();
-        book.setId(rs.getLong("id"));
-        book.setTitle(rs.getString("title"));
-        book.setAuthor(rs.getString("author"));
-        book.setPageCount(rs.getLong("page_count"));
+        book.setId(rs.getLong(ID));
+        book.setTitle(rs.getString(TITLE));
+        book.setAuthor(rs.getString(AUTHOR));
+        book.setPageCount(rs.getLong(PAGE_COUNT));
+        book.setVersion(rs.getLong(VERSION));
+
+        Person person = new Person();
+        person.setId(rs.getLong(PERSON_ID));
+        book.setPerson(person);
         return book;
     }
 }
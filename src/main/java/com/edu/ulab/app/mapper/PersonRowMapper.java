@@ -6,13 +6,27 @@ import org.springframework.jdbc.core.RowMapper;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+/**
+ * Маппинг строки по индексам колонок из {@link com.edu.ulab.app.web.constant.SQLQueryUserConstant#COLUMNS}:
+ * без рефлексии и поиска колонок по имени. Не хранит состояния, используется через {@link #INSTANCE}.
+ */
 public class PersonRowMapper implements RowMapper<Person> {
+    public static final PersonRowMapper INSTANCE = new PersonRowMapper();
+
+    private static final int ID = 1;
+    private static final int FULL_NAME = 2;
+    private static final int TITLE = 3;
+    private static final int AGE = 4;
+    private static final int VERSION = 5;
+
     @Override
     public Person mapRow(ResultSet rs, int rowNum) throws SQLException {
         Person person = new Person();
-        person.setId(rs.getLong("id"));
-        person.setTitle(rs.getString("title"));
-        person.setFullName(rs.getString("full_name"));
+        person.setId(rs.getLong(ID));
+        person.setFullName(rs.getString(FULL_NAME));
+        person.setTitle(rs.getString(TITLE));
+        person.setAge(rs.getInt(AGE));
+        person.setVersion(rs.getLong(VERSION));
         return person;
     }
 }
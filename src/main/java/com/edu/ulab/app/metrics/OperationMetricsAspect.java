@@ -0,0 +1,113 @@
+package com.edu.ulab.app.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Таймеры латентности операций фасада, сервисов и вызовов {@code JdbcTemplate}.
+ * <p>
+ * Каждый таймер помечен слоем, операцией, реализацией и исключением, если операция завершилась ошибкой;
+ * число вызовов и ошибок берётся из счётчика таймера. Реализация определяется по классу вызванного сервиса,
+ * а не по {@code app.storage.type}: фасад и {@code JdbcTemplate} общие для всех реализаций и помечены {@code none}.
+ * Гистограммы для перцентилей включаются в {@code management.metrics.distribution.percentiles-histogram}.
+ */
+@Aspect
+@Component
+public class OperationMetricsAspect {
+    public static final String OPERATION_TIMER = "ulab.operation";
+    public static final String JDBC_TIMER = "ulab.jdbc";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, String> implementations = new ConcurrentHashMap<>();
+
+    public OperationMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.edu.ulab.app.facade.UserDataFacade.*(..))")
+    public Object timeFacade(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, OPERATION_TIMER, "facade", NONE, NONE);
+    }
+
+    @Around("execution(public * com.edu.ulab.app.service.UserService+.*(..))")
+    public Object timeUserService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, OPERATION_TIMER, "user-service", implementationOf(joinPoint.getTarget()), NONE);
+    }
+
+    @Around("execution(public * com.edu.ulab.app.service.BookService+.*(..))")
+    public Object timeBookService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, OPERATION_TIMER, "book-service", implementationOf(joinPoint.getTarget()), NONE);
+    }
+
+    @Around("execution(public * org.springframework.jdbc.core.JdbcTemplate.*(..))")
+    public Object timeJdbcTemplate(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, JDBC_TIMER, "jdbc", NONE, statementOf(joinPoint.getArgs()));
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String name, String layer,
+                        String implementation, String statement) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("layer", layer)
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("implementation", implementation)
+                    .tag("statement", statement)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Реализация сервиса по суффиксу класса: {@code ImplTemplate} - template, {@code ImplStorage} - memory,
+     * {@code Impl} - jpa. Для прочих классов - простое имя класса.
+     */
+    private String implementationOf(Object target) {
+        return implementations.computeIfAbsent(ClassUtils.getUserClass(target), type -> {
+            String simpleName = type.getSimpleName();
+            if (simpleName.endsWith("ImplTemplate")) {
+                return "template";
+            }
+            if (simpleName.endsWith("ImplStorage")) {
+                return "memory";
+            }
+            if (simpleName.endsWith("Impl")) {
+                return "jpa";
+            }
+            return simpleName;
+        });
+    }
+
+    /**
+     * Тип SQL-оператора по первому строковому аргументу: select, insert, update, delete.
+     * Для вызовов с {@code PreparedStatementCreator} текст запроса недоступен.
+     */
+    private static String statementOf(Object[] args) {
+        if (args.length == 0 || !(args[0] instanceof String sql)) {
+            return "callback";
+        }
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "unknown" : trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,10 @@
+package com.edu.ulab.app.repository;
+
+/**
+ * Проекция книги на пару идентификаторов: сама книга и её пользователь.
+ */
+public interface BookIdView {
+    Long getPersonId();
+
+    Long getId();
+}
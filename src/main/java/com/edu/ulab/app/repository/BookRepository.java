@@ -1,10 +1,41 @@
 package com.edu.ulab.app.repository;
 
 import com.edu.ulab.app.entity.Book;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookRepository extends CrudRepository<Book, Long> {
+    /**
+     * Результат кэшируется в регионе {@link Book#BY_PERSON_ID_QUERY_REGION}: Hibernate сбрасывает его
+     * при любом изменении таблицы {@code book}, сами книги берутся из кэша сущностей.
+     * Книги загружаются только для чтения: без снимков состояния и проверки изменений при flush.
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = Book.BY_PERSON_ID_QUERY_REGION),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true")})
     List<Book> findByPersonId(Long id);
+
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"))
+    List<Book> findByPersonIdIn(Collection<Long> ids);
+
+    @Query("select b.id from Book b where b.person.id = :personId order by b.id")
+    List<Long> findIdsByPersonId(@Param("personId") Long personId);
+
+    @Query("select b.person.id as personId, b.id as id from Book b where b.person.id in :personIds "
+            + "order by b.person.id, b.id")
+    List<BookIdView> findIdsByPersonIdIn(@Param("personIds") Collection<Long> personIds);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Book b where b.person.id in :personIds")
+    int deleteByPersonIdIn(@Param("personIds") Collection<Long> personIds);
 }
@@ -0,0 +1,10 @@
+package com.edu.ulab.app.search;
+
+/**
+ * Поля книги, по которым ищет {@link BookSearchIndex}.
+ */
+public enum BookSearchField {
+    TITLE,
+    AUTHOR,
+    ANY
+}
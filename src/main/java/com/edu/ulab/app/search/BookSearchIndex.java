@@ -0,0 +1,405 @@
+package com.edu.ulab.app.search;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.storage.LongList;
+import com.edu.ulab.app.storage.LongObjectHashMap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Инвертированный индекс книг по словам названия и автора, чтобы поиск не обращался к БД.
+ * <p>
+ * Для каждого поля хранится упорядоченный словарь "слово - возрастающий список ID книг". Все слова запроса
+ * должны встретиться в книге, последнее слово ищется по префиксу (поиск по мере ввода). Списки слов
+ * с общим префиксом не копируются, а сливаются при обходе. Кандидаты берутся из самого короткого списка,
+ * остальные слова проверяются по сохранённым словам самой книги, а не поиском в чужих списках, поэтому ответ
+ * не зависит от размера индекса, пока подходящих книг хватает на страницу.
+ * Результаты упорядочены по ID книги, что даёт keyset-пагинацию по последнему ID страницы.
+ * <p>
+ * Изменения из транзакции применяются после её коммита: откаченные книги в индекс не попадают.
+ * Все структуры защищены одной read-write блокировкой.
+ */
+@Component
+public class BookSearchIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    /**
+     * ID 0 книгам не выдаётся (он же зарезервирован в {@link LongObjectHashMap}).
+     */
+    private static final long NO_BOOK = 0L;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    private final LongObjectHashMap<IndexedBook> books = new LongObjectHashMap<>();
+    private final LongObjectHashMap<LongList> bookIdsByUserId = new LongObjectHashMap<>();
+    private final NavigableMap<String, LongList> titlePostings = new TreeMap<>();
+    private final NavigableMap<String, LongList> authorPostings = new TreeMap<>();
+
+    /**
+     * Добавляет книги в индекс; книга с уже проиндексированным ID заменяется.
+     */
+    public void addAll(Collection<BookDto> bookDtos) {
+        List<BookDto> copies = bookDtos.stream()
+                .map(BookSearchIndex::copyOf)
+                .toList();
+        afterCommit(() -> addNow(copies));
+    }
+
+    public void add(BookDto bookDto) {
+        addAll(List.of(bookDto));
+    }
+
+    /**
+     * Добавление без ожидания коммита, для начальной загрузки индекса из БД.
+     */
+    void addNow(Collection<BookDto> bookDtos) {
+        writeLock.lock();
+        try {
+            bookDtos.forEach(this::addLocked);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(long bookId) {
+        afterCommit(() -> {
+            writeLock.lock();
+            try {
+                removeLocked(bookId);
+            } finally {
+                writeLock.unlock();
+            }
+        });
+    }
+
+    public void removeByUserIds(Collection<Long> userIds) {
+        List<Long> ids = List.copyOf(userIds);
+        afterCommit(() -> {
+            writeLock.lock();
+            try {
+                for (long userId : ids) {
+                    LongList bookIds = bookIdsByUserId.get(userId);
+                    if (Objects.isNull(bookIds)) {
+                        continue;
+                    }
+                    for (long bookId : bookIds.toArray()) {
+                        removeLocked(bookId);
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Книги, в которых встречаются все слова запроса, с ID больше {@code afterId}, не больше {@code limit} штук.
+     * Последнее слово ищется по префиксу, если запрос не заканчивается пробелом или знаком препинания.
+     *
+     * @throws IllegalArgumentException если в запросе нет ни одного слова
+     */
+    public List<BookDto> search(String query, BookSearchField field, long afterId, int limit) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query has no words: " + query);
+        }
+        boolean lastIsPrefix = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+        readLock.lock();
+        try {
+            Postings driver = null;
+            int driverTerm = 0;
+            for (int i = 0; i < terms.size(); i++) {
+                Postings termPostings = postings(terms.get(i), field, lastIsPrefix && i == terms.size() - 1);
+                if (termPostings.size() == 0) {
+                    return List.of();
+                }
+                if (Objects.isNull(driver) || termPostings.size() < driver.size()) {
+                    driver = termPostings;
+                    driverTerm = i;
+                }
+            }
+
+            List<BookDto> result = new ArrayList<>(Math.min(limit, driver.size()));
+            PrimitiveIterator.OfLong candidates = driver.iterator(afterId);
+            while (candidates.hasNext() && result.size() < limit) {
+                IndexedBook candidate = books.get(candidates.nextLong());
+                if (matchesAll(candidate, terms, driverTerm, lastIsPrefix, field)) {
+                    result.add(copyOf(candidate.book()));
+                }
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public int size() {
+        readLock.lock();
+        try {
+            return books.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Книги со словом: точное совпадение или все слова с таким префиксом, в выбранных полях.
+     */
+    private Postings postings(String term, BookSearchField field, boolean prefix) {
+        List<LongList> matches = new ArrayList<>();
+        if (field != BookSearchField.AUTHOR) {
+            collect(titlePostings, term, prefix, matches);
+        }
+        if (field != BookSearchField.TITLE) {
+            collect(authorPostings, term, prefix, matches);
+        }
+        return matches.size() == 1 ? new SinglePostings(matches.get(0)) : new UnionPostings(matches);
+    }
+
+    private static void collect(NavigableMap<String, LongList> index, String term, boolean prefix,
+                                List<LongList> matches) {
+        if (prefix) {
+            matches.addAll(index.subMap(term, true, term + Character.MAX_VALUE, false).values());
+            return;
+        }
+        LongList exact = index.get(term);
+        if (Objects.nonNull(exact)) {
+            matches.add(exact);
+        }
+    }
+
+    /**
+     * Проверяет слова запроса, кроме уже совпавшего {@code skipTerm}, по словам самой книги.
+     */
+    private static boolean matchesAll(IndexedBook candidate, List<String> terms, int skipTerm,
+                                      boolean lastIsPrefix, BookSearchField field) {
+        for (int i = 0; i < terms.size(); i++) {
+            if (i == skipTerm) {
+                continue;
+            }
+            boolean prefix = lastIsPrefix && i == terms.size() - 1;
+            boolean found = (field != BookSearchField.AUTHOR && contains(candidate.titleTokens(), terms.get(i), prefix))
+                    || (field != BookSearchField.TITLE && contains(candidate.authorTokens(), terms.get(i), prefix));
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(String[] tokens, String term, boolean prefix) {
+        for (String token : tokens) {
+            if (prefix ? token.startsWith(term) : token.equals(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addLocked(BookDto book) {
+        removeLocked(book.getId());
+        IndexedBook indexed = new IndexedBook(book,
+                tokenize(book.getTitle()).toArray(String[]::new),
+                tokenize(book.getAuthor()).toArray(String[]::new));
+        books.put(book.getId(), indexed);
+        link(bookIdsByUserId, book.getUserId(), book.getId());
+        for (String token : indexed.titleTokens()) {
+            link(titlePostings, token, book.getId());
+        }
+        for (String token : indexed.authorTokens()) {
+            link(authorPostings, token, book.getId());
+        }
+    }
+
+    private void removeLocked(long bookId) {
+        IndexedBook indexed = books.remove(bookId);
+        if (Objects.isNull(indexed)) {
+            return;
+        }
+        long userId = indexed.book().getUserId();
+        LongList userBookIds = bookIdsByUserId.get(userId);
+        if (Objects.nonNull(userBookIds) && userBookIds.removeSorted(bookId) && userBookIds.isEmpty()) {
+            bookIdsByUserId.remove(userId);
+        }
+        for (String token : indexed.titleTokens()) {
+            unlink(titlePostings, token, bookId);
+        }
+        for (String token : indexed.authorTokens()) {
+            unlink(authorPostings, token, bookId);
+        }
+    }
+
+    private static void link(LongObjectHashMap<LongList> index, long key, long bookId) {
+        LongList bookIds = index.get(key);
+        if (Objects.isNull(bookIds)) {
+            bookIds = new LongList();
+            index.put(key, bookIds);
+        }
+        bookIds.addSorted(bookId);
+    }
+
+    private static void link(NavigableMap<String, LongList> index, String token, long bookId) {
+        index.computeIfAbsent(token, key -> new LongList()).addSorted(bookId);
+    }
+
+    private static void unlink(NavigableMap<String, LongList> index, String token, long bookId) {
+        LongList bookIds = index.get(token);
+        if (Objects.nonNull(bookIds) && bookIds.removeSorted(bookId) && bookIds.isEmpty()) {
+            index.remove(token);
+        }
+    }
+
+    /**
+     * Слова текста в нижнем регистре без повторов, в порядке появления.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (Objects.isNull(text)) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Книга вместе со словами её полей: по ним проверяются кандидаты и снимаются ссылки при удалении.
+     */
+    private record IndexedBook(BookDto book, String[] titleTokens, String[] authorTokens) {
+    }
+
+    /**
+     * Возрастающий список ID книг одного слова запроса.
+     */
+    private interface Postings {
+        int size();
+
+        PrimitiveIterator.OfLong iterator(long afterId);
+    }
+
+    private record SinglePostings(LongList bookIds) implements Postings {
+        @Override
+        public int size() {
+            return bookIds.size();
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator(long afterId) {
+            return new PrimitiveIterator.OfLong() {
+                private int next = bookIds.indexAfter(afterId);
+
+                @Override
+                public boolean hasNext() {
+                    return next < bookIds.size();
+                }
+
+                @Override
+                public long nextLong() {
+                    return bookIds.get(next++);
+                }
+            };
+        }
+    }
+
+    /**
+     * Объединение нескольких списков (слова с общим префиксом, оба поля) без копирования:
+     * обход сливает списки через кучу. Размер - оценка сверху: книга может быть в нескольких списках.
+     */
+    private record UnionPostings(List<LongList> lists, int size) implements Postings {
+        UnionPostings(List<LongList> lists) {
+            this(lists, lists.stream().mapToInt(LongList::size).sum());
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator(long afterId) {
+            int[] positions = new int[lists.size()];
+            PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(lists.size(), 1),
+                    Comparator.comparingLong(list -> lists.get(list).get(positions[list])));
+            for (int i = 0; i < lists.size(); i++) {
+                positions[i] = lists.get(i).indexAfter(afterId);
+                if (positions[i] < lists.get(i).size()) {
+                    heap.add(i);
+                }
+            }
+            return new PrimitiveIterator.OfLong() {
+                private long last = afterId;
+                private long next = advance();
+
+                @Override
+                public boolean hasNext() {
+                    return next != NO_BOOK;
+                }
+
+                @Override
+                public long nextLong() {
+                    long current = next;
+                    next = advance();
+                    return current;
+                }
+
+                private long advance() {
+                    while (!heap.isEmpty()) {
+                        int list = heap.poll();
+                        long bookId = lists.get(list).get(positions[list]++);
+                        if (positions[list] < lists.get(list).size()) {
+                            heap.add(list);
+                        }
+                        // одна книга может быть в нескольких списках
+                        if (bookId != last) {
+                            last = bookId;
+                            return bookId;
+                        }
+                    }
+                    return NO_BOOK;
+                }
+            };
+        }
+    }
+
+    private static BookDto copyOf(BookDto book) {
+        Objects.requireNonNull(book.getId(), "Book for index has no ID");
+        Objects.requireNonNull(book.getUserId(), "Book for index has no user: " + book.getId());
+        BookDto copy = new BookDto();
+        copy.setId(book.getId());
+        copy.setUserId(book.getUserId());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setPageCount(book.getPageCount());
+        return copy;
+    }
+}
@@ -0,0 +1,88 @@
+package com.edu.ulab.app.search;
+
+import com.edu.ulab.app.dto.BookDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.edu.ulab.app.web.constant.SQLQueryBookConstant.SELECT_ALL_SQL;
+import static com.edu.ulab.app.web.constant.SQLQueryBookConstant.SELECT_BY_ID_RANGE_SQL;
+
+/**
+ * Заполняет {@link BookSearchIndex} книгами из {@code ulab_edu.book} при старте приложения, до приёма запросов,
+ * и догружает книги массовой загрузки после её коммита. Таблица читается курсором порциями
+ * по {@code app.export.fetch-size} строк. Для хранилища в памяти загружать нечего: оно стартует пустым.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${app.storage.type:template}' != 'memory'")
+public class BookSearchIndexLoader {
+    private final BookSearchIndex bookSearchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+
+    public BookSearchIndexLoader(BookSearchIndex bookSearchIndex,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.bookSearchIndex = bookSearchIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    @PostConstruct
+    void load() {
+        long started = System.nanoTime();
+        index(SELECT_ALL_SQL);
+        log.info("Indexed {} books for search in {} ms", bookSearchIndex.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Добавляет в индекс зафиксированные книги с ID из {@code [fromId, toId]}; уже проиндексированные заменяются.
+     */
+    public void load(long fromId, long toId) {
+        index(SELECT_BY_ID_RANGE_SQL, fromId, toId);
+    }
+
+    private void index(String sql, Object... args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<BookDto> batch = new ArrayList<>(fetchSize);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < args.length; i++) {
+                    ps.setObject(i + 1, args[i]);
+                }
+                return ps;
+            }, rs -> {
+                BookDto book = new BookDto();
+                book.setId(rs.getLong(1));
+                book.setTitle(rs.getString(2));
+                book.setAuthor(rs.getString(3));
+                book.setPageCount(rs.getLong(4));
+                book.setUserId(rs.getLong(5));
+                batch.add(book);
+                if (batch.size() == fetchSize) {
+                    bookSearchIndex.addNow(batch);
+                    batch.clear();
+                }
+            });
+            bookSearchIndex.addNow(batch);
+        });
+    }
+}
@@ -4,13 +4,44 @@ package com.edu.ulab.app.service;
 import com.edu.ulab.app.dto.BookDto;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public interface BookService {
     BookDto createBook(BookDto bookDto);
 
+    /**
+     * Сохраняет книги пачкой за минимальное число обращений к БД.
+     *
+     * @param bookDtos книги для сохранения
+     * @return сохранённые книги с идентификаторами в порядке исходной коллекции
+     */
+    List<BookDto> createBooks(Collection<BookDto> bookDtos);
+
     BookDto getBookById(Long id);
 
     void deleteBookById(Long id);
 
     Collection<BookDto> getBooksByUserId(Long userId);
+
+    /**
+     * Удаляет все книги указанных пользователей одним запросом.
+     *
+     * @param userIds идентификаторы пользователей
+     * @return число удалённых книг
+     */
+    int deleteBooksByUserIds(Collection<Long> userIds);
+
+    /**
+     * Идентификаторы книг пользователя по возрастанию, без загрузки остальных колонок.
+     */
+    long[] getBookIdsByUserId(Long userId);
+
+    /**
+     * Идентификаторы книг нескольких пользователей одним запросом.
+     *
+     * @param userIds идентификаторы пользователей
+     * @return идентификаторы книг по возрастанию, сгруппированные по пользователю; пользователи без книг в карту не попадают
+     */
+    Map<Long, long[]> getBookIdsByUserIds(Collection<Long> userIds);
 }
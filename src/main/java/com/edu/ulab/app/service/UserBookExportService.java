@@ -0,0 +1,13 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.web.response.UserBookResponse;
+
+import java.util.function.Consumer;
+
+public interface UserBookExportService {
+    /**
+     * Последовательно передаёт всех пользователей со списками книг в {@code consumer} в порядке возрастания ID,
+     * не собирая их в памяти.
+     */
+    void exportAll(Consumer<UserBookResponse> consumer);
+}
@@ -0,0 +1,16 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookImportResponse;
+
+import java.util.Iterator;
+
+public interface UserBookImportService {
+    /**
+     * Загружает пользователей с книгами, читая {@code requests} последовательно, без сбора в память.
+     * В хранилищах с транзакциями загрузка выполняется целиком или не выполняется вовсе.
+     *
+     * @return число загруженных пользователей и книг и скорость загрузки
+     */
+    UserBookImportResponse importAll(Iterator<UserBookRequest> requests);
+}
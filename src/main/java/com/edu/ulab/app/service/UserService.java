@@ -15,5 +15,21 @@ public interface UserService {
 
     void deleteUserById(Long id);
 
+    /**
+     * Удаляет пользователей одним запросом. Несуществующие идентификаторы пропускаются.
+     *
+     * @param ids идентификаторы пользователей
+     * @return число удалённых пользователей
+     */
+    int deleteUsersByIds(Collection<Long> ids);
+
     Collection<UserDto> findAll();
+
+    /**
+     * Возвращает страницу пользователей с идентификатором больше {@code afterId}, упорядоченных по ID.
+     *
+     * @param afterId идентификатор последнего пользователя предыдущей страницы
+     * @param limit   максимальный размер страницы
+     */
+    Collection<UserDto> findPage(Long afterId, int limit);
 }
@@ -4,26 +4,37 @@ import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.repository.BookIdView;
 import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.search.BookSearchIndex;
 import com.edu.ulab.app.service.BookService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.StreamSupport;
 
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "jpa")
 public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
 
     private final BookMapper bookMapper;
 
+    private final BookSearchIndex bookSearchIndex;
+
     public BookServiceImpl(BookRepository bookRepository,
-                           BookMapper bookMapper) {
+                           BookMapper bookMapper,
+                           BookSearchIndex bookSearchIndex) {
         this.bookRepository = bookRepository;
         this.bookMapper = bookMapper;
+        this.bookSearchIndex = bookSearchIndex;
     }
 
     @Override
@@ -33,7 +44,24 @@ public class BookServiceImpl implements BookService {
 
         Book savedBook = bookRepository.save(book);
         log.info("Saved book: {}", savedBook);
-        return bookMapper.bookToBookDto(savedBook);
+        BookDto savedBookDto = bookMapper.bookToBookDto(savedBook);
+        bookSearchIndex.add(savedBookDto);
+        return savedBookDto;
+    }
+
+    @Override
+    public List<BookDto> createBooks(Collection<BookDto> bookDtos) {
+        List<Book> books = bookDtos.stream()
+                .map(bookMapper::bookDtoToBook)
+                .toList();
+        log.info("Mapped {} books", books.size());
+
+        List<BookDto> savedBooks = StreamSupport.stream(bookRepository.saveAll(books).spliterator(), false)
+                .map(bookMapper::bookToBookDto)
+                .toList();
+        log.info("Saved {} books", savedBooks.size());
+        bookSearchIndex.addAll(savedBooks);
+        return savedBooks;
     }
 
     @Override
@@ -51,9 +79,21 @@ public class BookServiceImpl implements BookService {
             throw new NotFoundException("Not found book for delete with ID: " + id);
         }
         bookRepository.deleteById(id);
+        bookSearchIndex.remove(id);
         log.info("Book with ID {} has been deleted.", id);
     }
 
+    @Override
+    public int deleteBooksByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = bookRepository.deleteByPersonIdIn(userIds);
+        bookSearchIndex.removeByUserIds(userIds);
+        log.info("Deleted {} books of {} users", deleted, userIds.size());
+        return deleted;
+    }
+
     public Collection<BookDto> getAllBooks() {
         log.info("Get all books");
         return StreamSupport.stream(bookRepository.findAll().spliterator(), false)
@@ -68,4 +108,31 @@ public class BookServiceImpl implements BookService {
                 .map(bookMapper::bookToBookDto)
                 .toList();
     }
+
+    @Override
+    public long[] getBookIdsByUserId(Long userId) {
+        return bookRepository.findIdsByPersonId(userId).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    @Override
+    public Map<Long, long[]> getBookIdsByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, long[]> bookIdsByUserId = new HashMap<>();
+        List<BookIdView> views = bookRepository.findIdsByPersonIdIn(userIds);
+        int from = 0;
+        for (int i = 1; i <= views.size(); i++) {
+            if (i == views.size() || !views.get(i).getPersonId().equals(views.get(from).getPersonId())) {
+                bookIdsByUserId.put(views.get(from).getPersonId(), views.subList(from, i).stream()
+                        .mapToLong(BookIdView::getId)
+                        .toArray());
+                from = i;
+            }
+        }
+        log.info("Got book IDs for {} of {} users", bookIdsByUserId.size(), userIds.size());
+        return bookIdsByUserId;
+    }
 }
@@ -0,0 +1,116 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.search.BookSearchIndex;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "memory")
+public class BookServiceImplStorage implements BookService {
+    private final Storage storage;
+
+    private final BookMapper bookMapper;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    public BookServiceImplStorage(Storage storage,
+                                  BookMapper bookMapper,
+                                  BookSearchIndex bookSearchIndex) {
+        this.storage = storage;
+        this.bookMapper = bookMapper;
+        this.bookSearchIndex = bookSearchIndex;
+    }
+
+    @Override
+    public BookDto createBook(BookDto bookDto) {
+        if (Objects.isNull(bookDto)) {
+            throw new IllegalArgumentException("Book for save is null");
+        }
+        Book book = bookMapper.bookDtoToBook(bookDto);
+        book.setId(null);
+
+        Book savedBook = storage.saveBook(book);
+        log.info("Saved book: {}", savedBook.getId());
+        BookDto savedBookDto = bookMapper.bookToBookDto(savedBook);
+        bookSearchIndex.add(savedBookDto);
+        return savedBookDto;
+    }
+
+    @Override
+    public List<BookDto> createBooks(Collection<BookDto> bookDtos) {
+        List<BookDto> savedBooks = bookDtos.stream()
+                .map(this::createBook)
+                .toList();
+        log.info("Saved {} books", savedBooks.size());
+        return savedBooks;
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        log.info("Get Book with ID: {}", id);
+        Book book = storage.findBookById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Book with id %s not found", id)));
+        return bookMapper.bookToBookDto(book);
+    }
+
+    @Override
+    public void deleteBookById(Long id) {
+        if (storage.deleteBookById(id)) {
+            bookSearchIndex.remove(id);
+            log.info("Book with ID {} has been deleted", id);
+        } else {
+            throw new NotFoundException(String.format("Book with id %s not found", id));
+        }
+    }
+
+    @Override
+    public Collection<BookDto> getBooksByUserId(Long userId) {
+        return storage.findBooksByPersonId(userId).stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+    }
+
+    @Override
+    public int deleteBooksByUserIds(Collection<Long> userIds) {
+        int deleted = userIds.stream()
+                .mapToInt(storage::deleteBooksByPersonId)
+                .sum();
+        bookSearchIndex.removeByUserIds(userIds);
+        log.info("Deleted {} books of {} users", deleted, userIds.size());
+        return deleted;
+    }
+
+    @Override
+    public long[] getBookIdsByUserId(Long userId) {
+        long[] ids = storage.findBookIdsByPersonId(userId);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @Override
+    public Map<Long, long[]> getBookIdsByUserIds(Collection<Long> userIds) {
+        Map<Long, long[]> bookIdsByUserId = new HashMap<>();
+        for (Long userId : userIds) {
+            long[] ids = getBookIdsByUserId(userId);
+            if (ids.length > 0) {
+                bookIdsByUserId.put(userId, ids);
+            }
+        }
+        return bookIdsByUserId;
+    }
+}
@@ -3,34 +3,50 @@ package com.edu.ulab.app.service.impl;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.id.IdAllocator;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.mapper.BookRowMapper;
+import com.edu.ulab.app.search.BookSearchIndex;
 import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.storage.LongList;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import static com.edu.ulab.app.web.constant.SQLQueryBookConstant.*;
 
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "template", matchIfMissing = true)
 public class BookServiceImplTemplate implements BookService {
+    /**
+     * Размер JDBC-пачки; драйвер с {@code reWriteBatchedInserts} склеивает пачку в многострочные INSERT.
+     */
+    private static final int INSERT_BATCH_SIZE = 500;
 
     private final JdbcTemplate jdbcTemplate;
     private final BookMapper bookMapper;
+    private final IdAllocator idAllocator;
+
+    private final BookSearchIndex bookSearchIndex;
 
     public BookServiceImplTemplate(JdbcTemplate jdbcTemplate,
-                                   BookMapper bookMapper) {
+                                   BookMapper bookMapper,
+                                   IdAllocator idAllocator,
+                                   BookSearchIndex bookSearchIndex) {
         this.jdbcTemplate = jdbcTemplate;
         this.bookMapper = bookMapper;
+        this.idAllocator = idAllocator;
+        this.bookSearchIndex = bookSearchIndex;
     }
 
     @Override
@@ -38,28 +54,41 @@ public class BookServiceImplTemplate implements BookService {
         if (Objects.isNull(bookDto)) {
             throw new IllegalArgumentException("Book for save is null");
         }
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(
-                connection -> {
-                    PreparedStatement ps =
-                            connection.prepareStatement(INSERT_SQL, new String[]{"id"});
-                    ps.setString(1, bookDto.getTitle());
-                    ps.setString(2, bookDto.getAuthor());
-                    ps.setLong(3, bookDto.getPageCount());
-                    ps.setLong(4, bookDto.getUserId());
-                    return ps;
-                },
-                keyHolder);
-
-        bookDto.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        bookDto.setId(idAllocator.nextId());
+        jdbcTemplate.update(INSERT_SQL,
+                bookDto.getId(), bookDto.getTitle(), bookDto.getAuthor(), bookDto.getPageCount(), bookDto.getUserId());
+        bookSearchIndex.add(bookDto);
         log.info("Saved book: {}", bookDto);
         return bookDto;
     }
 
+    @Override
+    public List<BookDto> createBooks(Collection<BookDto> bookDtos) {
+        if (bookDtos.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Book for save is null");
+        }
+        List<BookDto> books = new ArrayList<>(bookDtos);
+        long[] ids = idAllocator.nextIds(books.size());
+        for (int i = 0; i < ids.length; i++) {
+            books.get(i).setId(ids[i]);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, books, INSERT_BATCH_SIZE,
+                (ps, bookDto) -> {
+                    ps.setLong(1, bookDto.getId());
+                    ps.setString(2, bookDto.getTitle());
+                    ps.setString(3, bookDto.getAuthor());
+                    ps.setLong(4, bookDto.getPageCount());
+                    ps.setLong(5, bookDto.getUserId());
+                });
+        bookSearchIndex.addAll(books);
+        log.info("Saved {} books", books.size());
+        return books;
+    }
+
     @Override
     public BookDto getBookById(Long id) {
         log.info("Get Book with ID: {}", id);
-        Book book = jdbcTemplate.queryForObject(SELECT_BY_ID_SQL, new BookRowMapper(), id);
+        Book book = jdbcTemplate.queryForObject(SELECT_BY_ID_SQL, BookRowMapper.INSTANCE, id);
         log.info("The book - {} was found.", book);
         if (Objects.isNull(book)) {
             throw new NotFoundException(String.format("Book with id %s not found", id));
@@ -70,6 +99,7 @@ public class BookServiceImplTemplate implements BookService {
     @Override
     public void deleteBookById(Long id) {
         if (jdbcTemplate.update(DELETE_BY_ID_SQL, id) != 0) {
+            bookSearchIndex.remove(id);
             log.info("Book with ID {} has been deleted", id);
         } else {
             throw new NotFoundException(String.format("Book with id %s not found", id));
@@ -78,18 +108,75 @@ public class BookServiceImplTemplate implements BookService {
 
     public void deleteBookByUserId(Long userId) {
         if (jdbcTemplate.update(DELETE_BY_USER_ID_SQL, userId) != 0) {
+            bookSearchIndex.removeByUserIds(List.of(userId));
             log.info("Book with ID {} has been deleted", userId);
         } else {
             throw new NotFoundException(String.format("Book with userId %s not found", userId));
         }
     }
 
+    @Override
+    public int deleteBooksByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = jdbcTemplate.update(DELETE_BY_USER_IDS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", userIds.toArray())));
+        bookSearchIndex.removeByUserIds(userIds);
+        log.info("Deleted {} books of {} users", deleted, userIds.size());
+        return deleted;
+    }
+
     @Override
     public Collection<BookDto> getBooksByUserId(Long userId) {
         List<Book> books = jdbcTemplate.query(SELECT_BY_USER_ID_SQL,
-                new BeanPropertyRowMapper(Book.class), userId);
+                BookRowMapper.INSTANCE, userId);
         return books.stream()
                 .map(bookMapper::bookToBookDto)
                 .toList();
     }
+
+    @Override
+    public long[] getBookIdsByUserId(Long userId) {
+        return jdbcTemplate.query(SELECT_IDS_BY_USER_ID_SQL, rs -> {
+            LongList ids = new LongList();
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+            return ids.toArray();
+        }, userId);
+    }
+
+    @Override
+    public Map<Long, long[]> getBookIdsByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, long[]> bookIdsByUserId = jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(SELECT_IDS_BY_USER_IDS_SQL);
+                    ps.setArray(1, connection.createArrayOf("bigint", userIds.toArray()));
+                    return ps;
+                },
+                rs -> {
+                    Map<Long, long[]> result = new HashMap<>();
+                    LongList ids = new LongList();
+                    long userId = 0;
+                    while (rs.next()) {
+                        long currentUserId = rs.getLong(1);
+                        if (!ids.isEmpty() && currentUserId != userId) {
+                            result.put(userId, ids.toArray());
+                            ids = new LongList();
+                        }
+                        userId = currentUserId;
+                        ids.add(rs.getLong(2));
+                    }
+                    if (!ids.isEmpty()) {
+                        result.put(userId, ids.toArray());
+                    }
+                    return result;
+                });
+        log.info("Got book IDs for {} of {} users", bookIdsByUserId.size(), userIds.size());
+        return bookIdsByUserId;
+    }
 }
@@ -0,0 +1,54 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.service.UserBookExportService;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Выгрузка из памяти порциями по {@code app.export.fetch-size} пользователей, чтобы не держать
+ * блокировку хранилища на время записи ответа.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "memory")
+public class UserBookExportServiceImplStorage implements UserBookExportService {
+    private final Storage storage;
+
+    private final int fetchSize;
+
+    public UserBookExportServiceImplStorage(Storage storage,
+                                            @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Export fetch size must be positive, got " + fetchSize);
+        }
+        this.storage = storage;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void exportAll(Consumer<UserBookResponse> consumer) {
+        long afterId = 0L;
+        long exported = 0L;
+        List<Person> persons;
+        do {
+            persons = storage.findPersonsAfter(afterId, fetchSize);
+            for (Person person : persons) {
+                consumer.accept(UserBookResponse.builder()
+                        .userId(person.getId())
+                        .booksIdList(storage.findBookIdsByPersonId(person.getId()))
+                        .build());
+                afterId = person.getId();
+            }
+            exported += persons.size();
+        } while (persons.size() == fetchSize);
+        log.info("Exported {} users", exported);
+    }
+}
@@ -0,0 +1,102 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.service.UserBookExportService;
+import com.edu.ulab.app.storage.LongList;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import static com.edu.ulab.app.web.constant.SQLQueryUserConstant.SELECT_ALL_WITH_BOOK_IDS_SQL;
+
+/**
+ * Выгрузка через серверный курсор PostgreSQL: драйвер читает строки порциями по {@code app.export.fetch-size},
+ * только если автокоммит выключен, поэтому запрос выполняется в read-only транзакции.
+ * Используется и для JPA-хранилища, так как таблицы те же.
+ */
+@Slf4j
+@Service
+@ConditionalOnExpression("'${app.storage.type:template}' != 'memory'")
+public class UserBookExportServiceImplTemplate implements UserBookExportService {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int fetchSize;
+
+    public UserBookExportServiceImplTemplate(JdbcTemplate jdbcTemplate,
+                                             PlatformTransactionManager transactionManager,
+                                             @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Export fetch size must be positive, got " + fetchSize);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void exportAll(Consumer<UserBookResponse> consumer) {
+        transactionTemplate.executeWithoutResult(status -> {
+            UserBookCollector collector = new UserBookCollector(consumer);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SELECT_ALL_WITH_BOOK_IDS_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, collector::accept);
+            collector.flush();
+            log.info("Exported {} users", collector.exported);
+        });
+    }
+
+    /**
+     * Собирает подряд идущие строки одного пользователя (запрос упорядочен по ID пользователя) в один ответ.
+     */
+    private static class UserBookCollector {
+        private final Consumer<UserBookResponse> consumer;
+        private Long userId;
+        private LongList bookIds = new LongList();
+        private long exported;
+
+        UserBookCollector(Consumer<UserBookResponse> consumer) {
+            this.consumer = consumer;
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            long currentUserId = rs.getLong(1);
+            if (Objects.nonNull(userId) && userId != currentUserId) {
+                flush();
+            }
+            userId = currentUserId;
+            long bookId = rs.getLong(2);
+            if (!rs.wasNull()) {
+                bookIds.add(bookId);
+            }
+        }
+
+        void flush() {
+            if (Objects.isNull(userId)) {
+                return;
+            }
+            consumer.accept(UserBookResponse.builder()
+                    .userId(userId)
+                    .booksIdList(bookIds.toArray())
+                    .build());
+            exported++;
+            userId = null;
+            bookIds = new LongList();
+        }
+    }
+}
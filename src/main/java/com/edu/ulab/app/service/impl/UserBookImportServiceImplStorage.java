@@ -0,0 +1,83 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.search.BookSearchIndex;
+import com.edu.ulab.app.service.UserBookImportService;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookImportResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "memory")
+public class UserBookImportServiceImplStorage implements UserBookImportService {
+    private final Storage storage;
+
+    private final BookMapper bookMapper;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    public UserBookImportServiceImplStorage(Storage storage,
+                                            BookMapper bookMapper,
+                                            BookSearchIndex bookSearchIndex) {
+        this.storage = storage;
+        this.bookMapper = bookMapper;
+        this.bookSearchIndex = bookSearchIndex;
+    }
+
+    @Override
+    public UserBookImportResponse importAll(Iterator<UserBookRequest> requests) {
+        long started = System.nanoTime();
+        long users = 0;
+        long books = 0;
+        while (requests.hasNext()) {
+            UserBookRequest request = requests.next();
+            if (Objects.isNull(request) || Objects.isNull(request.getUserRequest())) {
+                throw new IllegalArgumentException("Import request without user: " + request);
+            }
+            Person person = storage.savePerson(toPerson(request.getUserRequest()));
+            users++;
+            if (Objects.isNull(request.getBookRequests())) {
+                continue;
+            }
+            for (BookRequest bookRequest : request.getBookRequests()) {
+                if (Objects.nonNull(bookRequest)) {
+                    Book book = storage.saveBook(toBook(bookRequest, person));
+                    bookSearchIndex.add(bookMapper.bookToBookDto(book));
+                    books++;
+                }
+            }
+        }
+        UserBookImportResponse response = UserBookImportResponse.of(users, books, System.nanoTime() - started);
+        log.info("Imported {} users and {} books, {} rows/sec", response.getUsers(), response.getBooks(),
+                response.getRowsPerSecond());
+        return response;
+    }
+
+    private static Person toPerson(UserRequest request) {
+        Person person = new Person();
+        person.setFullName(request.getFullName());
+        person.setTitle(request.getTitle());
+        person.setAge(request.getAge());
+        return person;
+    }
+
+    private static Book toBook(BookRequest request, Person person) {
+        Book book = new Book();
+        book.setTitle(request.getTitle());
+        book.setAuthor(request.getAuthor());
+        book.setPageCount(request.getPageCount());
+        book.setPerson(person);
+        return book;
+    }
+}
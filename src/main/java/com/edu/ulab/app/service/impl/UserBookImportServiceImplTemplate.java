@@ -0,0 +1,215 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.search.BookSearchIndexLoader;
+import com.edu.ulab.app.service.UserBookImportService;
+import com.edu.ulab.app.web.constant.SQLQueryBookConstant;
+import com.edu.ulab.app.web.constant.SQLQueryUserConstant;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookImportResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Массовая загрузка через {@code COPY ... FROM STDIN} драйвера PostgreSQL. Запросы читаются порциями по
+ * {@code app.import.chunk-size} пользователей: на порцию одним запросом резервируются идентификаторы
+ * и выполняется по одному COPY на таблицу. Для других СУБД вместо COPY используются пакетные INSERT.
+ * Вся загрузка идёт в одной транзакции. Используется и для JPA-хранилища, так как таблицы те же.
+ * <p>
+ * Книги попадают в индекс поиска после коммита: на порцию запоминается только диапазон ID её книг,
+ * и книги диапазонов перечитываются из БД, а не держатся в памяти до конца загрузки.
+ */
+@Slf4j
+@Service
+@ConditionalOnExpression("'${app.storage.type:template}' != 'memory'")
+public class UserBookImportServiceImplTemplate implements UserBookImportService {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final IdAllocator idAllocator;
+
+    private final BookSearchIndexLoader bookSearchIndexLoader;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    public UserBookImportServiceImplTemplate(JdbcTemplate jdbcTemplate,
+                                             IdAllocator idAllocator,
+                                             BookSearchIndexLoader bookSearchIndexLoader,
+                                             PlatformTransactionManager transactionManager,
+                                             @Value("${app.import.chunk-size:10000}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Import chunk size must be positive, got " + chunkSize);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+        this.bookSearchIndexLoader = bookSearchIndexLoader;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public UserBookImportResponse importAll(Iterator<UserBookRequest> requests) {
+        long started = System.nanoTime();
+        List<long[]> bookIdRanges = new ArrayList<>();
+        long[] counts = transactionTemplate.execute(status -> jdbcTemplate.execute(
+                (ConnectionCallback<long[]>) connection -> importAll(connection, requests, bookIdRanges)));
+        bookIdRanges.forEach(range -> bookSearchIndexLoader.load(range[0], range[1]));
+        UserBookImportResponse response = UserBookImportResponse.of(counts[0], counts[1], System.nanoTime() - started);
+        log.info("Imported {} users and {} books, {} rows/sec", response.getUsers(), response.getBooks(),
+                response.getRowsPerSecond());
+        return response;
+    }
+
+    private long[] importAll(Connection connection, Iterator<UserBookRequest> requests,
+                             List<long[]> bookIdRanges) throws SQLException {
+        boolean copy = connection.isWrapperFor(PGConnection.class);
+        log.info("Import through {}", copy ? "COPY" : "batch insert");
+        long users = 0;
+        long books = 0;
+        List<UserBookRequest> chunk = new ArrayList<>(chunkSize);
+        while (requests.hasNext()) {
+            chunk.add(validate(requests.next()));
+            if (chunk.size() == chunkSize || !requests.hasNext()) {
+                Chunk rows = toRows(chunk);
+                if (copy) {
+                    copy(connection.unwrap(PGConnection.class), rows);
+                } else {
+                    insert(rows);
+                }
+                if (!rows.books.isEmpty()) {
+                    bookIdRanges.add(idRange(rows.books));
+                }
+                users += rows.persons.size();
+                books += rows.books.size();
+                log.debug("Imported {} users so far", users);
+                chunk.clear();
+            }
+        }
+        return new long[]{users, books};
+    }
+
+    private Chunk toRows(List<UserBookRequest> requests) {
+        int bookCount = requests.stream()
+                .mapToInt(request -> Objects.isNull(request.getBookRequests()) ? 0 : request.getBookRequests().size())
+                .sum();
+        long[] ids = idAllocator.reserveIds(requests.size() + bookCount);
+        int next = 0;
+        Chunk chunk = new Chunk(requests.size(), bookCount);
+        for (UserBookRequest request : requests) {
+            UserRequest user = request.getUserRequest();
+            long userId = ids[next++];
+            chunk.persons.add(new Object[]{userId, user.getFullName(), user.getTitle(), user.getAge()});
+            if (Objects.isNull(request.getBookRequests())) {
+                continue;
+            }
+            for (BookRequest book : request.getBookRequests()) {
+                if (Objects.nonNull(book)) {
+                    chunk.books.add(new Object[]{ids[next++], book.getTitle(), book.getAuthor(),
+                            book.getPageCount(), userId});
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Наименьший и наибольший ID книг порции. Идентификаторы резервируются блоками, поэтому в диапазон
+     * могут попасть и чужие книги: при загрузке в индекс они просто заменят себя же.
+     */
+    private static long[] idRange(List<Object[]> rows) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Object[] row : rows) {
+            long id = (Long) row[0];
+            min = Math.min(min, id);
+            max = Math.max(max, id);
+        }
+        return new long[]{min, max};
+    }
+
+    private void copy(PGConnection connection, Chunk chunk) throws SQLException {
+        copy(connection, SQLQueryUserConstant.COPY_SQL, chunk.persons);
+        copy(connection, SQLQueryBookConstant.COPY_SQL, chunk.books);
+    }
+
+    private static void copy(PGConnection connection, String sql, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(connection, sql), StandardCharsets.UTF_8))) {
+            for (Object[] row : rows) {
+                writeCsvRow(writer, row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void insert(Chunk chunk) {
+        jdbcTemplate.batchUpdate(SQLQueryUserConstant.INSERT_SQL, chunk.persons);
+        jdbcTemplate.batchUpdate(SQLQueryBookConstant.INSERT_SQL, chunk.books);
+    }
+
+    /**
+     * Строковые значения всегда берутся в кавычки, а {@code null} пишется пустым полем без кавычек:
+     * в CSV-формате COPY это {@code NULL}, и ограничения {@code NOT NULL} срабатывают как при INSERT.
+     */
+    private static void writeCsvRow(Writer writer, Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = row[i];
+            if (value instanceof String string) {
+                writer.write('"');
+                writer.write(string.replace("\"", "\"\""));
+                writer.write('"');
+            } else if (Objects.nonNull(value)) {
+                writer.write(value.toString());
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static UserBookRequest validate(UserBookRequest request) {
+        if (Objects.isNull(request) || Objects.isNull(request.getUserRequest())) {
+            throw new IllegalArgumentException("Import request without user: " + request);
+        }
+        return request;
+    }
+
+    private static class Chunk {
+        private final List<Object[]> persons;
+        private final List<Object[]> books;
+
+        Chunk(int persons, int books) {
+            this.persons = new ArrayList<>(persons);
+            this.books = new ArrayList<>(books);
+        }
+    }
+}
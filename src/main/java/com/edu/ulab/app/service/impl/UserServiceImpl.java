@@ -8,15 +8,18 @@ import com.edu.ulab.app.repository.UserRepository;
 import com.edu.ulab.app.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.stream.StreamSupport;
 
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "jpa")
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
@@ -47,6 +50,11 @@ public class UserServiceImpl implements UserService {
         return userMapper.personToUserDto(savedUser);
     }
 
+    /**
+     * Обновление без блокировки строки: при сохранении Hibernate сверяет {@link Person#getVersion()},
+     * и если пользователь изменён параллельно, бросает {@link OptimisticLockingFailureException}.
+     * Повтор выполняет {@link com.edu.ulab.app.facade.UserDataFacade} в новой транзакции.
+     */
     @Override
     public UserDto updateUser(UserDto userDto, Long userId) {
         if (Objects.isNull(userDto)) {
@@ -55,21 +63,18 @@ public class UserServiceImpl implements UserService {
         Person user = userMapper.userDtoToPerson(userDto);
         log.info("Mapped user: {}", user);
 
-        Optional<Person> userForUpdate = userRepository.findByIdForUpdate(userId);
-        if (userForUpdate.isPresent()) {
-            log.info("User before update: {}", userForUpdate);
-            Person updatedUser = userForUpdate.get();
-
-            updatedUser.setFullName(user.getFullName());
-            updatedUser.setTitle(user.getTitle());
-            updatedUser.setAge(user.getAge());
-
-            userRepository.save(updatedUser);
-            log.info("Updated user: {}", updatedUser);
-            return userMapper.personToUserDto(updatedUser);
-        }
-
-        Person savedUser = userRepository.save(user);
+        Person userForUpdate = userRepository.findById(userId)
+                .map(existing -> {
+                    log.info("User before update: {}", existing);
+                    existing.setFullName(user.getFullName());
+                    existing.setTitle(user.getTitle());
+                    existing.setAge(user.getAge());
+                    return existing;
+                })
+                .orElse(user);
+
+        Person savedUser = userRepository.save(userForUpdate);
+        log.info("Updated user: {}", savedUser);
         return userMapper.personToUserDto(savedUser);
     }
 
@@ -91,6 +96,16 @@ public class UserServiceImpl implements UserService {
         log.info("User with ID {} has been deleted", id);
     }
 
+    @Override
+    public int deleteUsersByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = userRepository.deleteByIdIn(ids);
+        log.info("Deleted {} of {} users", deleted, ids.size());
+        return deleted;
+    }
+
     @Override
     public Collection<UserDto> findAll() {
         log.info("Get all users");
@@ -99,4 +114,11 @@ public class UserServiceImpl implements UserService {
                 .toList();
     }
 
+    @Override
+    public Collection<UserDto> findPage(Long afterId, int limit) {
+        log.info("Get users after ID: {}, limit: {}", afterId, limit);
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit)).stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
 }
@@ -0,0 +1,97 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Objects;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "memory")
+public class UserServiceImplStorage implements UserService {
+    private final Storage storage;
+
+    private final UserMapper userMapper;
+
+    public UserServiceImplStorage(Storage storage,
+                                  UserMapper userMapper) {
+        this.storage = storage;
+        this.userMapper = userMapper;
+    }
+
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        if (Objects.isNull(userDto)) {
+            throw new IllegalArgumentException("User for save is null");
+        }
+        Person user = userMapper.userDtoToPerson(userDto);
+        user.setId(null);
+
+        Person savedUser = storage.savePerson(user);
+        log.info("Saved user: {}", savedUser.getId());
+        return userMapper.personToUserDto(savedUser);
+    }
+
+    @Override
+    public UserDto updateUser(UserDto userDto, Long userId) {
+        if (Objects.isNull(userDto)) {
+            throw new IllegalArgumentException("User for update is null");
+        }
+        Person user = userMapper.userDtoToPerson(userDto);
+        user.setId(userId);
+
+        Person updatedUser = storage.replacePerson(user)
+                .orElseThrow(() -> new NotFoundException(String.format("User with ID %s not found", userId)));
+        log.info("Updated user: {}", updatedUser.getId());
+        return userMapper.personToUserDto(updatedUser);
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        log.info("Get User with ID: {}", id);
+        Person user = storage.findPersonById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("User with id %s not found", id)));
+        return userMapper.personToUserDto(user);
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        if (storage.deletePersonById(id)) {
+            log.info("User with ID {} has been deleted", id);
+        } else {
+            throw new NotFoundException(String.format("User with id %s not found", id));
+        }
+    }
+
+    @Override
+    public int deleteUsersByIds(Collection<Long> ids) {
+        int deleted = (int) ids.stream()
+                .filter(storage::deletePersonById)
+                .count();
+        log.info("Deleted {} of {} users", deleted, ids.size());
+        return deleted;
+    }
+
+    @Override
+    public Collection<UserDto> findAll() {
+        return storage.findAllPersons().stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+
+    @Override
+    public Collection<UserDto> findPage(Long afterId, int limit) {
+        log.info("Get users after ID: {}, limit: {}", afterId, limit);
+        return storage.findPersonsAfter(afterId, limit).stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+}
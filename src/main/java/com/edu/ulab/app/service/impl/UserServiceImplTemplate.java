@@ -3,17 +3,16 @@ package com.edu.ulab.app.service.impl;
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.id.IdAllocator;
 import com.edu.ulab.app.mapper.PersonRowMapper;
 import com.edu.ulab.app.mapper.UserMapper;
 import com.edu.ulab.app.service.UserService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 
-import java.sql.PreparedStatement;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -22,15 +21,20 @@ import static com.edu.ulab.app.web.constant.SQLQueryUserConstant.*;
 
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "template", matchIfMissing = true)
 public class UserServiceImplTemplate implements UserService {
     private final JdbcTemplate jdbcTemplate;
 
     private final UserMapper userMapper;
 
+    private final IdAllocator idAllocator;
+
     public UserServiceImplTemplate(JdbcTemplate jdbcTemplate,
-                                   UserMapper userMapper) {
+                                   UserMapper userMapper,
+                                   IdAllocator idAllocator) {
         this.jdbcTemplate = jdbcTemplate;
         this.userMapper = userMapper;
+        this.idAllocator = idAllocator;
     }
 
     @Override
@@ -38,35 +42,39 @@ public class UserServiceImplTemplate implements UserService {
         if (Objects.isNull(userDto)) {
             throw new IllegalArgumentException("User for save is null");
         }
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(
-                connection -> {
-                    PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
-                    ps.setString(1, userDto.getFullName());
-                    ps.setString(2, userDto.getTitle());
-                    ps.setLong(3, userDto.getAge());
-                    return ps;
-                }, keyHolder);
-
-        userDto.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        userDto.setId(idAllocator.nextId());
+        jdbcTemplate.update(INSERT_SQL,
+                userDto.getId(), userDto.getFullName(), userDto.getTitle(), userDto.getAge());
         log.info("Saved user: {}", userDto);
         return userDto;
     }
 
+    /**
+     * Обновление без блокировки строки: читается текущая версия, и обновление проходит, только если она
+     * не изменилась. При конфликте бросает {@link OptimisticLockingFailureException}, повтор выполняет
+     * {@link com.edu.ulab.app.facade.UserDataFacade} в новой транзакции.
+     */
     @Override
     public UserDto updateUser(UserDto userDto, Long userId) {
         if (Objects.isNull(userDto)) {
             throw new IllegalArgumentException("User for update is null");
         }
+        Long version = jdbcTemplate.query(SELECT_VERSION_BY_ID_SQL,
+                rs -> rs.next() ? rs.getLong(1) : null, userId);
+        if (Objects.isNull(version)) {
+            throw new NotFoundException(String.format("User with ID %s not found", userId));
+        }
 
         if (jdbcTemplate.update(
                 UPDATE_SQL,
-                userDto.getFullName(), userDto.getTitle(), userDto.getAge(), userId) != 0) {
-            log.info("Updated user: {}", userDto);
-            return userDto;
-        } else {
-            throw new NotFoundException(String.format("User with ID %s not found", userId));
+                userDto.getFullName(), userDto.getTitle(), userDto.getAge(), userId, version) == 0) {
+            throw new OptimisticLockingFailureException(
+                    String.format("User with ID %s was modified concurrently, version %s", userId, version));
         }
+        userDto.setId(userId);
+        userDto.setVersion(version + 1);
+        log.info("Updated user: {}", userDto);
+        return userDto;
     }
 
     @Override
@@ -74,7 +82,7 @@ public class UserServiceImplTemplate implements UserService {
         log.info("Get User with ID: {}", id);
         Person user;
         try {
-            user = jdbcTemplate.queryForObject(SELECT_BY_ID_SQL, new PersonRowMapper(), id);
+            user = jdbcTemplate.queryForObject(SELECT_BY_ID_SQL, PersonRowMapper.INSTANCE, id);
         } catch (Exception e) {
             throw new NotFoundException(String.format("User with id %s not found", id));
         }
@@ -91,10 +99,31 @@ public class UserServiceImplTemplate implements UserService {
         }
     }
 
+    @Override
+    public int deleteUsersByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = jdbcTemplate.update(DELETE_BY_IDS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+        log.info("Deleted {} of {} users", deleted, ids.size());
+        return deleted;
+    }
+
     @Override
     public Collection<UserDto> findAll() {
         List<Person> users = jdbcTemplate.query(SELECT_ALL_SQL,
-                new BeanPropertyRowMapper(Person.class));
+                PersonRowMapper.INSTANCE);
+        return users.stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+
+    @Override
+    public Collection<UserDto> findPage(Long afterId, int limit) {
+        log.info("Get users after ID: {}, limit: {}", afterId, limit);
+        List<Person> users = jdbcTemplate.query(SELECT_PAGE_AFTER_ID_SQL,
+                PersonRowMapper.INSTANCE, afterId, limit);
         return users.stream()
                 .map(userMapper::personToUserDto)
                 .toList();
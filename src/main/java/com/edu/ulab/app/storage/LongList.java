@@ -0,0 +1,103 @@
+package com.edu.ulab.app.storage;
+
+import java.util.Arrays;
+
+/**
+ * Растущий массив примитивов {@code long}. Класс не потокобезопасен,
+ * синхронизация выполняется в {@link Storage}.
+ */
+public class LongList {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private long[] elements;
+    private int size;
+
+    public LongList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongList(int capacity) {
+        elements = new long[Math.max(capacity, 1)];
+    }
+
+    public void add(long value) {
+        ensureCapacity(size + 1);
+        elements[size++] = value;
+    }
+
+    /**
+     * Вставляет значение, сохраняя возрастающий порядок. Применимо только к спискам,
+     * которые изменяются исключительно через этот метод.
+     */
+    public void addSorted(long value) {
+        int index = Arrays.binarySearch(elements, 0, size, value);
+        if (index >= 0) {
+            return;
+        }
+        int insertionPoint = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(elements, insertionPoint, elements, insertionPoint + 1, size - insertionPoint);
+        elements[insertionPoint] = value;
+        size++;
+    }
+
+    public boolean remove(long value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Удаляет значение из списка, упорядоченного через {@link #addSorted(long)}.
+     */
+    public boolean removeSorted(long value) {
+        int index = Arrays.binarySearch(elements, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Индекс первого элемента упорядоченного списка, строго большего {@code value}.
+     */
+    public int indexAfter(long value) {
+        int index = Arrays.binarySearch(elements, 0, size, value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    public long get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return elements[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(capacity, elements.length << 1));
+        }
+    }
+}
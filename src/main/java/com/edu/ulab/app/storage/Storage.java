@@ -1,11 +1,277 @@
 package com.edu.ulab.app.storage;
 
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Потокобезопасное хранилище пользователей и книг в памяти.
+ * <p>
+ * Пользователи и книги лежат в хеш-таблицах с ключами {@code long}, связь пользователь - книги
+ * хранится как растущий массив идентификаторов книг. Все структуры защищены одной
+ * read-write блокировкой, поэтому пользователь, его книги и индекс всегда согласованы между собой.
+ * Хранилище работает с сущностями и возвращает их копии, чтобы внешний код не мог изменить данные в обход него.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "memory")
 public class Storage {
-    //todo создать хранилище в котором будут содержаться данные
-    // сделать абстракции через которые можно будет производить операции с хранилищем
-    // продумать логику поиска и сохранения
-    // продумать возможные ошибки
-    // учесть, что при сохранеии юзера или книги, должен генерироваться идентификатор
-    // продумать что у узера может быть много книг и нужно создать эту связь
-    // так же учесть, что методы хранилища принимают друго тип данных - учесть это в абстракции
+    private final AtomicLong idGenerator = new AtomicLong();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    private final LongObjectHashMap<Person> persons = new LongObjectHashMap<>();
+    private final LongList personIds = new LongList();
+    private final LongObjectHashMap<Book> books = new LongObjectHashMap<>();
+    private final LongObjectHashMap<LongList> bookIdsByPersonId = new LongObjectHashMap<>();
+
+    public long nextId() {
+        return idGenerator.incrementAndGet();
+    }
+
+    /**
+     * Сохраняет пользователя. Если идентификатор не задан, он будет сгенерирован,
+     * иначе пользователь с таким идентификатором будет перезаписан с увеличением версии.
+     */
+    public Person savePerson(Person person) {
+        Objects.requireNonNull(person, "Person for save is null");
+        Person stored = copyOf(person);
+        if (Objects.isNull(stored.getId())) {
+            stored.setId(nextId());
+        }
+        writeLock.lock();
+        try {
+            Person previous = persons.put(stored.getId(), stored);
+            if (Objects.isNull(previous)) {
+                stored.setVersion(0L);
+                personIds.addSorted(stored.getId());
+            } else {
+                stored.setVersion(previous.getVersion() + 1);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        log.debug("Saved person with ID: {}", stored.getId());
+        return copyOf(stored);
+    }
+
+    /**
+     * Перезаписывает существующего пользователя с увеличением версии. Проверка и запись идут под одной блокировкой,
+     * поэтому параллельно удалённый пользователь не будет вставлен заново.
+     *
+     * @return сохранённый пользователь или пустой результат, если пользователя с таким ID нет
+     */
+    public Optional<Person> replacePerson(Person person) {
+        Objects.requireNonNull(person, "Person for replace is null");
+        Objects.requireNonNull(person.getId(), "Person for replace has no ID");
+        Person stored = copyOf(person);
+        writeLock.lock();
+        try {
+            Person previous = persons.get(stored.getId());
+            if (Objects.isNull(previous)) {
+                return Optional.empty();
+            }
+            stored.setVersion(previous.getVersion() + 1);
+            persons.put(stored.getId(), stored);
+        } finally {
+            writeLock.unlock();
+        }
+        log.debug("Replaced person with ID: {}", stored.getId());
+        return Optional.of(copyOf(stored));
+    }
+
+    public Optional<Person> findPersonById(long id) {
+        readLock.lock();
+        try {
+            return Optional.ofNullable(persons.get(id)).map(Storage::copyOf);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public boolean deletePersonById(long id) {
+        writeLock.lock();
+        try {
+            if (Objects.isNull(persons.remove(id))) {
+                return false;
+            }
+            personIds.removeSorted(id);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public List<Person> findAllPersons() {
+        return findPersonsAfter(0L, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Возвращает до {@code limit} пользователей с идентификатором больше {@code afterId} в порядке возрастания ID.
+     */
+    public List<Person> findPersonsAfter(long afterId, int limit) {
+        readLock.lock();
+        try {
+            int from = personIds.indexAfter(afterId);
+            int to = (int) Math.min((long) from + limit, personIds.size());
+            List<Person> result = new ArrayList<>(Math.max(to - from, 0));
+            for (int i = from; i < to; i++) {
+                result.add(copyOf(persons.get(personIds.get(i))));
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Сохраняет книгу и связывает её с пользователем из {@link Book#getPerson()}.
+     *
+     * @throws NotFoundException если пользователь книги не найден
+     */
+    public Book saveBook(Book book) {
+        Objects.requireNonNull(book, "Book for save is null");
+        long personId = personIdOf(book);
+        Book stored = copyOf(book);
+        if (Objects.isNull(stored.getId())) {
+            stored.setId(nextId());
+        }
+        writeLock.lock();
+        try {
+            if (!persons.containsKey(personId)) {
+                throw new NotFoundException("Not found user with ID: " + personId);
+            }
+            Book previous = books.put(stored.getId(), stored);
+            if (Objects.nonNull(previous)) {
+                unlinkBook(personIdOf(previous), previous.getId());
+            }
+            LongList bookIds = bookIdsByPersonId.get(personId);
+            if (Objects.isNull(bookIds)) {
+                bookIds = new LongList();
+                bookIdsByPersonId.put(personId, bookIds);
+            }
+            bookIds.add(stored.getId());
+        } finally {
+            writeLock.unlock();
+        }
+        log.debug("Saved book with ID: {}", stored.getId());
+        return copyOf(stored);
+    }
+
+    public Optional<Book> findBookById(long id) {
+        readLock.lock();
+        try {
+            return Optional.ofNullable(books.get(id)).map(Storage::copyOf);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public boolean deleteBookById(long id) {
+        writeLock.lock();
+        try {
+            Book removed = books.remove(id);
+            if (Objects.isNull(removed)) {
+                return false;
+            }
+            unlinkBook(personIdOf(removed), id);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long[] findBookIdsByPersonId(long personId) {
+        readLock.lock();
+        try {
+            LongList bookIds = bookIdsByPersonId.get(personId);
+            return Objects.isNull(bookIds) ? new long[0] : bookIds.toArray();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public List<Book> findBooksByPersonId(long personId) {
+        readLock.lock();
+        try {
+            LongList bookIds = bookIdsByPersonId.get(personId);
+            if (Objects.isNull(bookIds)) {
+                return List.of();
+            }
+            List<Book> result = new ArrayList<>(bookIds.size());
+            for (int i = 0; i < bookIds.size(); i++) {
+                result.add(copyOf(books.get(bookIds.get(i))));
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public int deleteBooksByPersonId(long personId) {
+        writeLock.lock();
+        try {
+            LongList bookIds = bookIdsByPersonId.remove(personId);
+            if (Objects.isNull(bookIds)) {
+                return 0;
+            }
+            for (int i = 0; i < bookIds.size(); i++) {
+                books.remove(bookIds.get(i));
+            }
+            return bookIds.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void unlinkBook(long personId, long bookId) {
+        LongList bookIds = bookIdsByPersonId.get(personId);
+        if (Objects.nonNull(bookIds) && bookIds.remove(bookId) && bookIds.isEmpty()) {
+            bookIdsByPersonId.remove(personId);
+        }
+    }
+
+    private static long personIdOf(Book book) {
+        if (Objects.isNull(book.getPerson()) || Objects.isNull(book.getPerson().getId())) {
+            throw new IllegalArgumentException("Book has no user: " + book.getId());
+        }
+        return book.getPerson().getId();
+    }
+
+    private static Person copyOf(Person person) {
+        Person copy = new Person();
+        copy.setId(person.getId());
+        copy.setFullName(person.getFullName());
+        copy.setTitle(person.getTitle());
+        copy.setAge(person.getAge());
+        copy.setVersion(person.getVersion());
+        return copy;
+    }
+
+    private static Book copyOf(Book book) {
+        Person person = new Person();
+        person.setId(personIdOf(book));
+
+        Book copy = new Book();
+        copy.setId(book.getId());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setPageCount(book.getPageCount());
+        copy.setPerson(person);
+        return copy;
+    }
 }
@@ -0,0 +1,57 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.search.BookSearchField;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.response.BookSearchPageResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static com.edu.ulab.app.web.constant.WebConstant.*;
+
+@Slf4j
+@RestController
+@RequestMapping(value = WebConstant.VERSION_URL + "/book",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+public class BookController {
+    private final UserDataFacade userDataFacade;
+
+    public BookController(UserDataFacade userDataFacade) {
+        this.userDataFacade = userDataFacade;
+    }
+
+    /**
+     * Все слова запроса должны встретиться в книге, последнее слово ищется по префиксу.
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search books by words of title and author.",
+            responses = {
+                    @ApiResponse(description = "Page of found books.", responseCode = "200",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = BookSearchPageResponse.class)))},
+            parameters = {
+                    @Parameter(name = "q", description = "Words to search, the last one matches as a prefix."),
+                    @Parameter(name = "field", description = "Field to search in: TITLE, AUTHOR or ANY."),
+                    @Parameter(name = "cursor", description = "Cursor of the next page from the previous response."),
+                    @Parameter(name = "limit", description = "Page size, at most " + MAX_PAGE_SIZE + ".")})
+    public BookSearchPageResponse searchBooks(@RequestParam("q") String query,
+                                              @RequestParam(defaultValue = "ANY") BookSearchField field,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive, got " + limit);
+        }
+        BookSearchPageResponse response = userDataFacade.searchBooks(query, field, cursor, Math.min(limit, MAX_PAGE_SIZE));
+        log.info("Response with {} books, next cursor: {}", response.getContent().size(), response.getNextCursor());
+        return response;
+    }
+}
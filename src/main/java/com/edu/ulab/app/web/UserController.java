@@ -1,9 +1,16 @@
 package com.edu.ulab.app.web;
 
 import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.idempotency.IdempotentRequestExecutor;
 import com.edu.ulab.app.web.constant.WebConstant;
 import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.TaggedUserBookResponse;
+import com.edu.ulab.app.web.response.UserBookImportResponse;
+import com.edu.ulab.app.web.response.UserBookPageResponse;
 import com.edu.ulab.app.web.response.UserBookResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,25 +18,43 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.constraints.Pattern;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
-import static com.edu.ulab.app.web.constant.WebConstant.REQUEST_ID_PATTERN;
-import static com.edu.ulab.app.web.constant.WebConstant.RQID;
+import static com.edu.ulab.app.web.constant.WebConstant.*;
 
 @Slf4j
 @RestController
 @RequestMapping(value = WebConstant.VERSION_URL + "/user",
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                APPLICATION_SMILE_VALUE, APPLICATION_PROTOBUF_VALUE})
 public class UserController {
     private final UserDataFacade userDataFacade;
+    private final ObjectMapper objectMapper;
+    private final IdempotentRequestExecutor idempotentRequestExecutor;
 
-    public UserController(UserDataFacade userDataFacade) {
+    public UserController(UserDataFacade userDataFacade,
+                          ObjectMapper objectMapper,
+                          IdempotentRequestExecutor idempotentRequestExecutor) {
         this.userDataFacade = userDataFacade;
+        this.objectMapper = objectMapper;
+        this.idempotentRequestExecutor = idempotentRequestExecutor;
     }
 
+    /**
+     * Заголовок rqid служит ключом идемпотентности: повтор запроса с тем же rqid возвращает
+     * ответ исходного запроса и не создаёт пользователя заново. Пустой rqid и повтор rqid с другим телом - 400,
+     * повтор, не дождавшийся выполняющегося исходного запроса, - 409.
+     */
     @PostMapping()
     @Operation(summary = "Create user with books.",
             responses = {
@@ -40,10 +65,11 @@ public class UserController {
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = UserBookRequest.class))),
             parameters = {
-                    @Parameter(name = "rqid", description = "Request id.")})
+                    @Parameter(name = "rqid", description = "Request id, retries with the same id return the original response.")})
     public UserBookResponse createUserWithBooks(@RequestBody UserBookRequest request,
                                                 @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId) {
-        UserBookResponse response = userDataFacade.createUserWithBooks(request);
+        UserBookResponse response = idempotentRequestExecutor.execute(requestId, request,
+                () -> userDataFacade.createUserWithBooks(request));
         log.info("Response with created user and his books: {}", response);
         return response;
     }
@@ -72,28 +98,88 @@ public class UserController {
             responses = {
                     @ApiResponse(description = "User received", responseCode = "200",
                             content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
-                                    schema = @Schema(implementation = UserBookResponse.class)))},
+                                    schema = @Schema(implementation = UserBookResponse.class))),
+                    @ApiResponse(description = "User is not modified since the ETag from If-None-Match.",
+                            responseCode = "304")},
             parameters = {
                     @Parameter(name = "userId", description = "User ID to get.",
                             content = @Content(schema = @Schema(implementation = Long.class)))})
-    public UserBookResponse getUserWithBooks(@PathVariable Long userId) {
-        UserBookResponse response = userDataFacade.getUserWithBooks(userId);
-        log.info("Response with user and his books: {}", response);
-        return response;
+    public ResponseEntity<UserBookResponse> getUserWithBooks(@PathVariable Long userId, WebRequest webRequest) {
+        TaggedUserBookResponse tagged = userDataFacade.getUserWithBooks(userId);
+        if (webRequest.checkNotModified(tagged.getETag())) {
+            log.info("User with ID: {} is not modified, ETag: {}", userId, tagged.getETag());
+            return null;
+        }
+        log.info("Response with user and his books: {}", tagged.getResponse());
+        return ResponseEntity.ok()
+                .eTag(tagged.getETag())
+                .body(tagged.getResponse());
     }
 
     @GetMapping()
-    @Operation(summary = "Get all users with books.",
+    @Operation(summary = "Get a page of users with books.",
             responses = {
-                    @ApiResponse(description = "All users are received.", responseCode = "200",
+                    @ApiResponse(description = "Page of users is received.", responseCode = "200",
                             content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
-                                    schema = @Schema(implementation = UserBookResponse.class)))})
-    public List<UserBookResponse> getAllUsersWithBooks() {
-        List<UserBookResponse> response = userDataFacade.getAll();
-        log.info("Response with all users and books: {}", response);
+                                    schema = @Schema(implementation = UserBookPageResponse.class)))},
+            parameters = {
+                    @Parameter(name = "cursor", description = "Cursor of the next page from the previous response."),
+                    @Parameter(name = "limit", description = "Page size, at most " + MAX_PAGE_SIZE + ".")})
+    public UserBookPageResponse getAllUsersWithBooks(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive, got " + limit);
+        }
+        UserBookPageResponse response = userDataFacade.getPage(cursor, Math.min(limit, MAX_PAGE_SIZE));
+        log.info("Response with {} users, next cursor: {}", response.getContent().size(), response.getNextCursor());
         return response;
     }
 
+    /**
+     * Массовая загрузка пользователей с книгами: тело запроса - NDJSON, по одному {@link UserBookRequest} на строку.
+     * Тело читается потоково, без сбора в память.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import users with books from NDJSON.",
+            responses = {
+                    @ApiResponse(description = "Users imported.", responseCode = "200",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBookImportResponse.class)))},
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = UserBookRequest.class))))
+    public UserBookImportResponse importUsersWithBooks(InputStream body) throws IOException {
+        try (MappingIterator<UserBookRequest> requests = objectMapper.readerFor(UserBookRequest.class).readValues(body)) {
+            UserBookImportResponse response = userDataFacade.importAll(requests);
+            log.info("Response with import result: {}", response);
+            return response;
+        }
+    }
+
+    /**
+     * Выгрузка всех пользователей с книгами в формате NDJSON: каждый пользователь пишется в поток ответа
+     * сразу после чтения, поэтому потребление памяти не зависит от числа пользователей.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all users with books as NDJSON.",
+            responses = {
+                    @ApiResponse(description = "Users are streamed, one JSON object per line.", responseCode = "200",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = UserBookResponse.class)))})
+    public ResponseEntity<StreamingResponseBody> exportUsersWithBooks() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                AtomicLong exported = new AtomicLong();
+                userDataFacade.exportAll(response -> writeLine(generator, response, exported.incrementAndGet() == 1));
+                log.info("Exported {} users with books", exported.get());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @DeleteMapping("{userId}")
     @Operation(summary = "Delete user with books by user ID.",
             responses = {
@@ -106,4 +192,32 @@ public class UserController {
         userDataFacade.deleteUserWithBooks(userId);
     }
 
+    @DeleteMapping()
+    @Operation(summary = "Delete users with books by user IDs.",
+            responses = {
+                    @ApiResponse(description = "Users deleted", responseCode = "200")},
+            parameters = {
+                    @Parameter(name = "userIds", description = "User IDs to delete, at most " + MAX_PAGE_SIZE + ".")})
+    public void deleteUsersWithBooks(@RequestParam List<Long> userIds) {
+        if (userIds.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format("At most %s users can be deleted at once, got %s",
+                    MAX_PAGE_SIZE, userIds.size()));
+        }
+        log.info("Delete users and their books: userIds {}", userIds);
+        int deleted = userDataFacade.deleteUsersWithBooks(userIds);
+        log.info("Deleted {} users", deleted);
+    }
+
+    private static void writeLine(JsonGenerator generator, UserBookResponse response, boolean flush) {
+        try {
+            generator.writeObject(response);
+            generator.writeRaw('\n');
+            if (flush) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
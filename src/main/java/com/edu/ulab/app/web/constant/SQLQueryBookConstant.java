@@ -4,16 +4,35 @@ import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class SQLQueryBookConstant {
-    public static final String INSERT_SQL = "INSERT INTO BOOK(TITLE, AUTHOR, PAGE_COUNT, USER_ID) VALUES (?,?,?,?)";
+    /**
+     * Порядок колонок, на который рассчитан {@link com.edu.ulab.app.mapper.BookRowMapper}.
+     */
+    public static final String COLUMNS = "ID, TITLE, AUTHOR, PAGE_COUNT, PERSON_ID, VERSION";
 
-    public static final String UPDATE_SQL = "UPDATE BOOK SET TITLE = ?, AUTHOR = ?, PAGE_COUNT = ?, USER_ID = ? WHERE ID = ?";
+    public static final String COPY_SQL = "COPY ULAB_EDU.BOOK (ID, TITLE, AUTHOR, PAGE_COUNT, PERSON_ID) FROM STDIN WITH (FORMAT csv)";
 
-    public static final String SELECT_BY_ID_SQL = "SELECT * FROM BOOK WHERE ID = ?";
+    public static final String INSERT_SQL = "INSERT INTO ULAB_EDU.BOOK(ID, TITLE, AUTHOR, PAGE_COUNT, PERSON_ID) VALUES (?,?,?,?,?)";
 
-    public static final String DELETE_BY_ID_SQL = "DELETE FROM BOOK WHERE ID = ?";
+    public static final String UPDATE_SQL = "UPDATE ULAB_EDU.BOOK SET TITLE = ?, AUTHOR = ?, PAGE_COUNT = ?, PERSON_ID = ?, "
+            + "VERSION = VERSION + 1 WHERE ID = ? AND VERSION = ?";
 
-    public static final String DELETE_BY_USER_ID_SQL = "DELETE FROM BOOK WHERE USER_ID = ?";
+    public static final String SELECT_BY_ID_SQL = "SELECT " + COLUMNS + " FROM ULAB_EDU.BOOK WHERE ID = ?";
 
-    public static final String SELECT_BY_USER_ID_SQL = "SELECT * FROM BOOK WHERE USER_ID = ?";
+    public static final String DELETE_BY_ID_SQL = "DELETE FROM ULAB_EDU.BOOK WHERE ID = ?";
+
+    public static final String DELETE_BY_USER_ID_SQL = "DELETE FROM ULAB_EDU.BOOK WHERE PERSON_ID = ?";
+
+    public static final String DELETE_BY_USER_IDS_SQL = "DELETE FROM ULAB_EDU.BOOK WHERE PERSON_ID = ANY(?)";
+
+    public static final String SELECT_BY_USER_ID_SQL = "SELECT " + COLUMNS + " FROM ULAB_EDU.BOOK WHERE PERSON_ID = ?";
+
+    public static final String SELECT_IDS_BY_USER_ID_SQL = "SELECT ID FROM ULAB_EDU.BOOK WHERE PERSON_ID = ? ORDER BY ID";
+
+    public static final String SELECT_IDS_BY_USER_IDS_SQL = "SELECT PERSON_ID, ID FROM ULAB_EDU.BOOK "
+            + "WHERE PERSON_ID = ANY(?) ORDER BY PERSON_ID, ID";
+
+    public static final String SELECT_ALL_SQL = "SELECT " + COLUMNS + " FROM ULAB_EDU.BOOK";
+
+    public static final String SELECT_BY_ID_RANGE_SQL = "SELECT " + COLUMNS + " FROM ULAB_EDU.BOOK WHERE ID BETWEEN ? AND ?";
 
 }
@@ -0,0 +1,23 @@
+package com.edu.ulab.app.web.constant;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class SQLQueryIdempotencyConstant {
+    public static final String CLAIM_SQL = "INSERT INTO ULAB_EDU.IDEMPOTENCY_KEY(REQUEST_ID, REQUEST_HASH, CREATED_AT) "
+            + "VALUES (?,?,?) ON CONFLICT (REQUEST_ID) DO NOTHING";
+
+    public static final String TAKE_OVER_SQL = "UPDATE ULAB_EDU.IDEMPOTENCY_KEY SET REQUEST_HASH = ?, USER_ID = NULL, "
+            + "BOOK_IDS = NULL, CREATED_AT = ? WHERE REQUEST_ID = ? AND CREATED_AT = ?";
+
+    public static final String COMPLETE_SQL = "UPDATE ULAB_EDU.IDEMPOTENCY_KEY SET USER_ID = ?, BOOK_IDS = ?, CREATED_AT = ? "
+            + "WHERE REQUEST_ID = ? AND USER_ID IS NULL AND CREATED_AT = ?";
+
+    public static final String RELEASE_SQL = "DELETE FROM ULAB_EDU.IDEMPOTENCY_KEY "
+            + "WHERE REQUEST_ID = ? AND USER_ID IS NULL AND CREATED_AT = ?";
+
+    public static final String SELECT_BY_REQUEST_ID_SQL = "SELECT REQUEST_HASH, USER_ID, BOOK_IDS, CREATED_AT "
+            + "FROM ULAB_EDU.IDEMPOTENCY_KEY WHERE REQUEST_ID = ?";
+
+    public static final String DELETE_EXPIRED_SQL = "DELETE FROM ULAB_EDU.IDEMPOTENCY_KEY WHERE CREATED_AT <= ?";
+}
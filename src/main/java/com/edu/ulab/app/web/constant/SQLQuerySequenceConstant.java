@@ -0,0 +1,10 @@
+package com.edu.ulab.app.web.constant;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class SQLQuerySequenceConstant {
+    public static final String NEXT_VALUE_SQL = "SELECT nextval('sequence')";
+
+    public static final String NEXT_VALUES_SQL = "SELECT nextval('sequence') FROM generate_series(1, ?)";
+}
@@ -4,13 +4,38 @@ import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class SQLQueryUserConstant {
-    public static final String INSERT_SQL = "INSERT INTO PERSON(FULL_NAME, TITLE, AGE) VALUES (?,?,?)";
+    /**
+     * Порядок колонок, на который рассчитан {@link com.edu.ulab.app.mapper.PersonRowMapper}.
+     */
+    public static final String COLUMNS = "ID, FULL_NAME, TITLE, AGE, VERSION";
 
-    public static final String UPDATE_SQL = "UPDATE PERSON SET FULL_NAME = ?, TITLE = ?, AGE = ? WHERE ID = ?";
+    public static final String COPY_SQL = "COPY ULAB_EDU.PERSON (ID, FULL_NAME, TITLE, AGE) FROM STDIN WITH (FORMAT csv)";
 
-    public static final String SELECT_BY_ID_SQL = "SELECT * FROM PERSON WHERE ID = ?";
+    public static final String INSERT_SQL = "INSERT INTO ULAB_EDU.PERSON(ID, FULL_NAME, TITLE, AGE) VALUES (?,?,?,?)";
 
-    public static final String DELETE_BY_ID_SQL = "DELETE FROM PERSON WHERE ID = ?";
+    /**
+     * Оптимистичное обновление: 0 изменённых строк означает, что версия уже изменена другой транзакцией
+     * (или пользователь удалён).
+     */
+    public static final String UPDATE_SQL = "UPDATE ULAB_EDU.PERSON SET FULL_NAME = ?, TITLE = ?, AGE = ?, VERSION = VERSION + 1 "
+            + "WHERE ID = ? AND VERSION = ?";
 
-    public static final String SELECT_ALL_SQL = "SELECT * FROM PERSON";
+    public static final String SELECT_VERSION_BY_ID_SQL = "SELECT VERSION FROM ULAB_EDU.PERSON WHERE ID = ?";
+
+    public static final String SELECT_BY_ID_SQL = "SELECT " + COLUMNS + " FROM ULAB_EDU.PERSON WHERE ID = ?";
+
+    public static final String DELETE_BY_ID_SQL = "DELETE FROM ULAB_EDU.PERSON WHERE ID = ?";
+
+    public static final String DELETE_BY_IDS_SQL = "DELETE FROM ULAB_EDU.PERSON WHERE ID = ANY(?)";
+
+    public static final String SELECT_ALL_SQL = "SELECT " + COLUMNS + " FROM ULAB_EDU.PERSON";
+
+    /**
+     * Все пользователи с идентификаторами книг, по строке на книгу. Порядок по ID пользователя
+     * позволяет собирать пользователя из подряд идущих строк при потоковом чтении.
+     */
+    public static final String SELECT_ALL_WITH_BOOK_IDS_SQL = "SELECT P.ID, B.ID FROM ULAB_EDU.PERSON P "
+            + "LEFT JOIN ULAB_EDU.BOOK B ON B.PERSON_ID = P.ID ORDER BY P.ID, B.ID";
+
+    public static final String SELECT_PAGE_AFTER_ID_SQL = "SELECT " + COLUMNS + " FROM ULAB_EDU.PERSON WHERE ID > ? ORDER BY ID LIMIT ?";
 }
@@ -6,5 +6,9 @@ import lombok.experimental.UtilityClass;
 public class WebConstant {
     public static final String VERSION_URL = "/api/v1";
     public static final String RQID = "rqid";
-    public static final String REQUEST_ID_PATTERN = "^[A-Za-z0-9_-]*$";
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+    public static final String REQUEST_ID_PATTERN = "^[A-Za-z0-9_-]+$";
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
 }
@@ -0,0 +1,86 @@
+package com.edu.ulab.app.web.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограничение числа параллельных запросов по схеме AIMD: каждый быстрый ответ при загрузке не меньше половины
+ * ограничения увеличивает его на {@code 1 / limit} (примерно +1 за "поколение" запросов), медленный или
+ * ответ 5xx уменьшает в {@code backoffRatio} раз. Так ограничение растёт, пока БД отвечает в пределах порога,
+ * и быстро падает, когда очередь к пулу соединений начинает увеличивать латентность.
+ * <p>
+ * Уменьшение применяется не чаще раза за поколение: запросы, начатые до последнего уменьшения, его уже
+ * вызвали, поэтому пачка из N одновременных медленных ответов уменьшает ограничение один раз, а не в
+ * {@code backoffRatio^N} раз.
+ */
+public class AimdLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private boolean decreased;
+    private long decreasedAtNanos;
+
+    public AimdLimit(ConcurrencyLimitProperties.Budget budget) {
+        if (budget.getMinLimit() < 1 || budget.getMinLimit() > budget.getMaxLimit()) {
+            throw new IllegalArgumentException("Invalid concurrency limit bounds: " + budget);
+        }
+        this.minLimit = budget.getMinLimit();
+        this.maxLimit = budget.getMaxLimit();
+        this.latencyThresholdNanos = budget.getLatencyThreshold().toNanos();
+        this.backoffRatio = budget.getBackoffRatio();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, budget.getInitialLimit()));
+    }
+
+    /**
+     * Занимает место под запрос, если текущее ограничение это позволяет.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Освобождает место и учитывает латентность завершившегося запроса.
+     *
+     * @param startNanos время начала запроса по {@link System#nanoTime()}
+     * @param endNanos   время его завершения по тем же часам
+     */
+    public void release(long startNanos, long endNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        onSample(startNanos, endNanos, failed, inFlightBefore);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long startNanos, long endNanos, boolean failed, int inFlightBefore) {
+        double current = limit;
+        if (failed || endNanos - startNanos > latencyThresholdNanos) {
+            // запрос из поколения, которое уже уменьшило ограничение
+            if (decreased && startNanos - decreasedAtNanos < 0) {
+                return;
+            }
+            limit = Math.max(minLimit, current * backoffRatio);
+            decreased = true;
+            decreasedAtNanos = endNanos;
+        } else if (inFlightBefore * 2 >= current) {
+            // при малой загрузке латентность ничего не говорит о запасе, ограничение не растёт
+            limit = Math.min(maxLimit, current + 1 / current);
+        }
+    }
+}
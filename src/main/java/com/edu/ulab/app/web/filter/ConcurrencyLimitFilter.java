@@ -0,0 +1,185 @@
+package com.edu.ulab.app.web.filter;
+
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.response.BaseWebResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Сбрасывает нагрузку до того, как запросы займут потоки Tomcat в ожидании соединения с БД.
+ * <p>
+ * У каждого эндпоинта (метод и путь, числовые сегменты заменены на {@code {id}}) своё {@link AimdLimit}
+ * с бюджетом чтения или записи. Запрос сверх ограничения сразу получает 503 с заголовком Retry-After.
+ * Метрики: {@code ulab.concurrency.limit}, {@code ulab.concurrency.in-flight}, {@code ulab.concurrency.rejected}.
+ * Идёт после {@link HttpRequestFilter}, так что отклонённые запросы тоже логируются со своим rqid.
+ */
+@Slf4j
+@Component
+@Order(HttpRequestFilter.ORDER + 1)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    public static final String LIMIT_GAUGE = "ulab.concurrency.limit";
+    public static final String IN_FLIGHT_GAUGE = "ulab.concurrency.in-flight";
+    public static final String REJECTED_COUNTER = "ulab.concurrency.rejected";
+
+    /**
+     * Защита от роста числа ограничений на несуществующих путях: сверх этого числа они делят одно ограничение.
+     */
+    private static final int MAX_ENDPOINTS = 256;
+    private static final String OTHER_ENDPOINT = "other";
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final Map<String, EndpointLimit> limits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties,
+                                  MeterRegistry meterRegistry,
+                                  ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !pathOf(request).startsWith(WebConstant.VERSION_URL);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        EndpointLimit endpointLimit = limitOf(request);
+        if (!endpointLimit.limit.tryAcquire()) {
+            endpointLimit.rejected.increment();
+            log.warn("Rejected {} {}: {} requests in flight, limit {}", request.getMethod(), request.getRequestURI(),
+                    endpointLimit.limit.getInFlight(), endpointLimit.limit.getLimit());
+            reject(response);
+            return;
+        }
+        Release release = new Release(endpointLimit.limit, response, System.nanoTime());
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            release.run(true);
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            // потоковые ответы (выгрузка) завершаются после выхода из фильтра
+            request.getAsyncContext().addListener(release);
+        } else {
+            release.run(false);
+        }
+    }
+
+    private EndpointLimit limitOf(HttpServletRequest request) {
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        String type = read ? "read" : "write";
+        String endpoint = request.getMethod() + " " + ID_SEGMENT.matcher(pathOf(request)).replaceAll("/{id}");
+        if (limits.size() >= MAX_ENDPOINTS && !limits.containsKey(endpoint)) {
+            endpoint = OTHER_ENDPOINT + " " + type;
+        }
+        return limits.computeIfAbsent(endpoint,
+                key -> new EndpointLimit(key, type, read ? properties.getRead() : properties.getWrite()));
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new BaseWebResponse("Server is overloaded, retry later"));
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private final class EndpointLimit {
+        private final AimdLimit limit;
+        private final Counter rejected;
+
+        private EndpointLimit(String endpoint, String type, ConcurrencyLimitProperties.Budget budget) {
+            this.limit = new AimdLimit(budget);
+            Gauge.builder(LIMIT_GAUGE, limit, AimdLimit::getLimit)
+                    .tag("endpoint", endpoint)
+                    .tag("type", type)
+                    .register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_GAUGE, limit, AimdLimit::getInFlight)
+                    .tag("endpoint", endpoint)
+                    .tag("type", type)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder(REJECTED_COUNTER)
+                    .tag("endpoint", endpoint)
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Освобождает место ровно один раз: по выходу из цепочки фильтров или по завершении асинхронного ответа.
+     */
+    private static final class Release implements AsyncListener {
+        private final AimdLimit limit;
+        private final HttpServletResponse response;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Release(AimdLimit limit, HttpServletResponse response, long startNanos) {
+            this.limit = limit;
+            this.response = response;
+            this.startNanos = startNanos;
+        }
+
+        private void run(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(startNanos, System.nanoTime(),
+                        failed || response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value());
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
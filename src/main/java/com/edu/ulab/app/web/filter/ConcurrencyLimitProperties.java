@@ -0,0 +1,49 @@
+package com.edu.ulab.app.web.filter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Адаптивные ограничения параллельных запросов ({@code app.concurrency-limit.*}): отдельные бюджеты
+ * для чтения (GET, HEAD) и записи, у каждого эндпоинта своё ограничение внутри бюджета.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+
+    /**
+     * Значение заголовка Retry-After в ответе 503.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Budget read = new Budget(Duration.ofMillis(250));
+
+    private Budget write = new Budget(Duration.ofSeconds(1));
+
+    @Data
+    public static class Budget {
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+
+        /**
+         * Запрос дольше этого порога (или с ответом 5xx) считается признаком перегрузки и уменьшает ограничение.
+         */
+        private Duration latencyThreshold;
+
+        /**
+         * Во сколько раз уменьшается ограничение при перегрузке.
+         */
+        private double backoffRatio = 0.9;
+
+        public Budget() {
+        }
+
+        Budget(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+    }
+}
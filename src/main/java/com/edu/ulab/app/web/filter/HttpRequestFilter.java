@@ -2,6 +2,8 @@ package com.edu.ulab.app.web.filter;
 
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -13,7 +15,13 @@ import java.io.IOException;
 
 @Slf4j
 @Component
+@Order(HttpRequestFilter.ORDER)
 public class HttpRequestFilter extends OncePerRequestFilter {
+    /**
+     * Фильтр идёт раньше остальных фильтров приложения, чтобы их логи содержали requestId.
+     */
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
     @Override
     protected void doFilterInternal(final HttpServletRequest request,
                                     final HttpServletResponse response,
@@ -0,0 +1,37 @@
+package com.edu.ulab.app.web.pagination;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Кодирует позицию keyset-пагинации (идентификатор последней записи страницы) в непрозрачный курсор.
+ */
+public final class CursorCodec {
+
+    private static final long FIRST_PAGE_ID = 0L;
+
+    private CursorCodec() {
+    }
+
+    public static String encode(long lastId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(lastId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static long decode(String cursor) {
+        if (Objects.isNull(cursor) || cursor.isBlank()) {
+            return FIRST_PAGE_ID;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        if (bytes.length != Long.BYTES) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+}
@@ -0,0 +1,15 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Data
+@Builder
+@Jacksonized
+public class BookSearchPageResponse {
+    private List<BookSearchResponse> content;
+    private String nextCursor;
+}
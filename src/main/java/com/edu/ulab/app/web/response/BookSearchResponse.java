@@ -0,0 +1,16 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+@Data
+@Builder
+@Jacksonized
+public class BookSearchResponse {
+    private Long id;
+    private Long userId;
+    private String title;
+    private String author;
+    private long pageCount;
+}
@@ -0,0 +1,15 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Ответ с пользователем и его книгами вместе со строгим ETag. Лежит в кэше {@code userWithBooks} одной записью,
+ * поэтому тег всегда соответствует телу.
+ */
+@Data
+@Builder
+public class TaggedUserBookResponse {
+    private UserBookResponse response;
+    private String eTag;
+}
@@ -0,0 +1,25 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+@Data
+@Builder
+public class UserBookImportResponse {
+    private long users;
+    private long books;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+
+    public static UserBookImportResponse of(long users, long books, long elapsedNanos) {
+        long nanos = Math.max(elapsedNanos, 1);
+        return UserBookImportResponse.builder()
+                .users(users)
+                .books(books)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(nanos))
+                .rowsPerSecond((users + books) * TimeUnit.SECONDS.toNanos(1) / nanos)
+                .build();
+    }
+}
@@ -2,12 +2,12 @@ package com.edu.ulab.app.web.response;
 
 import lombok.Builder;
 import lombok.Data;
-
-import java.util.List;
+import lombok.extern.jackson.Jacksonized;
 
 @Data
 @Builder
+@Jacksonized
 public class UserBookResponse {
     private Long userId;
-    private List<Long> booksIdList;
+    private long[] booksIdList;
 }
@@ -0,0 +1,3 @@
+CREATE INDEX idx_ulab_edu_book_person_id on ulab_edu.book (person_id, id);
+
+comment on index ulab_edu.idx_ulab_edu_book_person_id is 'Книги пользователя: поиск и удаление по person_id, выгрузка в порядке ID';
@@ -0,0 +1,5 @@
+ALTER TABLE ulab_edu.person ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE ulab_edu.book ADD COLUMN version bigint NOT NULL DEFAULT 0;
+
+comment on column ulab_edu.person.version is 'Версия записи для оптимистичной блокировки';
+comment on column ulab_edu.book.version is 'Версия записи для оптимистичной блокировки';
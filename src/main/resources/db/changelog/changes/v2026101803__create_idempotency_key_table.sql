@@ -0,0 +1,18 @@
+create table ulab_edu.idempotency_key
+(
+    request_id   varchar(255) not null,
+    request_hash varchar(64)  not null,
+    user_id      bigint,
+    book_ids     bigint[],
+    created_at   timestamp    not null,
+    constraint pk_ulab_edu_idempotency_key_request_id primary key (request_id)
+);
+
+create index idx_ulab_edu_idempotency_key_created_at on ulab_edu.idempotency_key (created_at);
+
+comment on table ulab_edu.idempotency_key is 'Запросы создания пользователя по rqid и их результаты для повторных запросов';
+comment on column ulab_edu.idempotency_key.request_id is 'Идентификатор запроса (заголовок rqid)';
+comment on column ulab_edu.idempotency_key.request_hash is 'SHA-256 тела запроса';
+comment on column ulab_edu.idempotency_key.user_id is 'Идентификатор созданного пользователя, NULL пока запрос выполняется';
+comment on column ulab_edu.idempotency_key.book_ids is 'Идентификаторы созданных книг, NULL пока запрос выполняется';
+comment on column ulab_edu.idempotency_key.created_at is 'Время занятия ключа, после выполнения - время сохранения результата';
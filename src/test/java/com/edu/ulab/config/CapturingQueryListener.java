@@ -0,0 +1,42 @@
+package com.edu.ulab.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Запоминает выполненные запросы вместе с параметрами, чтобы тест мог получить SQL,
+ * сгенерированный Hibernate для методов репозиториев.
+ */
+public class CapturingQueryListener implements QueryExecutionListener {
+    private static final List<QueryInfo> QUERIES = new CopyOnWriteArrayList<>();
+
+    public static void reset() {
+        QUERIES.clear();
+    }
+
+    public static List<QueryInfo> getQueries() {
+        return List.copyOf(QUERIES);
+    }
+
+    /**
+     * Сколько раз выполнен запрос с таким текстом.
+     */
+    public static long count(String sql) {
+        return QUERIES.stream()
+                .filter(query -> query.getQuery().equals(sql))
+                .count();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QUERIES.addAll(queryInfoList);
+    }
+}
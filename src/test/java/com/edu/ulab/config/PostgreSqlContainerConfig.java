@@ -55,6 +55,7 @@ public class PostgreSqlContainerConfig {
         SLF4JQueryLoggingListener loggingListener = new SLF4JQueryLoggingListener();
         listener.addListener(loggingListener);
         listener.addListener(new DataSourceQueryCountListener());
+        listener.addListener(new CapturingQueryListener());
 
         return ProxyDataSourceBuilder
                 .create(dataSource)
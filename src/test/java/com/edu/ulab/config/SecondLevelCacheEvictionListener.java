@@ -0,0 +1,23 @@
+package com.edu.ulab.config;
+
+import org.hibernate.SessionFactory;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Очищает кэш второго уровня перед каждым тестом: скрипты {@code @Sql} меняют таблицы в обход Hibernate,
+ * и сущности, закэшированные предыдущими тестами, исказили бы и данные, и число запросов.
+ */
+public class SecondLevelCacheEvictionListener extends AbstractTestExecutionListener {
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        testContext.getApplicationContext()
+                .getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getCache()
+                .evictAllRegions();
+    }
+}
@@ -6,6 +6,6 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @EntityScan("com.edu.ulab.app.entity")
 @EnableJpaRepositories(basePackages = {"com.edu.ulab.app.repository"})
-@ComponentScan({"com.edu.ulab.app.repository"})
+@ComponentScan({"com.edu.ulab.app.repository", "com.edu.ulab.app.id"})
 public class SystemTestingJpaConfig {
 }
@@ -0,0 +1,92 @@
+package com.edu.ulab.datasource;
+
+import com.edu.ulab.app.datasource.ReplicaRoutingDataSource;
+import com.edu.ulab.app.datasource.RoutingContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Маршрутизация на двух экземплярах PostgreSQL: основная БД и реплика заполняются отдельно,
+ * каждая хранит своё имя в таблице {@code node}, по нему видно, куда ушёл запрос.
+ */
+@Testcontainers
+@DisplayName("Testing replica routing on PostgreSQL containers.")
+public class ReplicaRoutingContainersTest {
+    private static final DockerImageName IMAGE = DockerImageName.parse("postgres:13-alpine");
+    private static final String SELECT_NODE_SQL = "SELECT NAME FROM NODE";
+    private static final String UNREACHABLE_URL = "jdbc:postgresql://localhost:1/postgres?connectTimeout=1";
+
+    @Container
+    private static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>(IMAGE);
+
+    @Container
+    private static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>(IMAGE);
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate readOnlyTransaction;
+    private static TransactionTemplate writeTransaction;
+
+    @BeforeAll
+    static void setUp() {
+        seed(PRIMARY, "primary");
+        seed(REPLICA, "replica");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("unreachable", new DriverManagerDataSource(UNREACHABLE_URL, "postgres", "postgres"));
+        replicas.put("replica", dataSource(REPLICA));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(dataSource(PRIMARY), replicas, Duration.ofMinutes(1)));
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    @DisplayName("Read-only транзакции GET-операций читают с реплики, недоступная реплика пропускается")
+    void readOnlyOnReplica_Test() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica", RoutingContext.onReplica(() -> readOnlyTransaction.execute(status -> node())));
+        }
+    }
+
+    @Test
+    @DisplayName("Запись и чтения без разрешения реплики идут на основную БД")
+    void writesAndForeignReadsOnPrimary_Test() {
+        assertEquals("primary", RoutingContext.onReplica(() -> writeTransaction.execute(status -> node())));
+        assertEquals("primary", readOnlyTransaction.execute(status -> node()));
+    }
+
+    private static String node() {
+        return jdbcTemplate.queryForObject(SELECT_NODE_SQL, String.class);
+    }
+
+    private static void seed(PostgreSQLContainer<?> container, String name) {
+        JdbcTemplate template = new JdbcTemplate(dataSource(container));
+        template.execute("CREATE TABLE NODE (NAME VARCHAR NOT NULL)");
+        template.update("INSERT INTO NODE (NAME) VALUES (?)", name);
+    }
+
+    private static DataSource dataSource(PostgreSQLContainer<?> container) {
+        return new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+}
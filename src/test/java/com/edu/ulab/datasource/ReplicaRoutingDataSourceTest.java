@@ -0,0 +1,102 @@
+package com.edu.ulab.datasource;
+
+import com.edu.ulab.app.datasource.ReplicaRoutingDataSource;
+import com.edu.ulab.app.datasource.RoutingContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование {@link ReplicaRoutingDataSource}.
+ */
+@DisplayName("Testing replica routing data source.")
+public class ReplicaRoutingDataSourceTest {
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replica1Connection = mock(Connection.class);
+    private final Connection replica2Connection = mock(Connection.class);
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica1 = mock(DataSource.class);
+    private final DataSource replica2 = mock(DataSource.class);
+
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        dataSource = new ReplicaRoutingDataSource(primary, replicas, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Чтения по кругу распределяются между репликами")
+    void readOnlyGoesToReplicasRoundRobin_Test() throws SQLException {
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Connection first = RoutingContext.onReplica(this::connection);
+        Connection second = RoutingContext.onReplica(this::connection);
+        Connection third = RoutingContext.onReplica(this::connection);
+
+        assertSame(replica1Connection, first);
+        assertSame(replica2Connection, second);
+        assertSame(replica1Connection, third);
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    @DisplayName("Без read-only транзакции или разрешения читать с реплики соединение берётся с основной БД")
+    void primaryWithoutReadOnlyOrPermission_Test() {
+        assertSame(primaryConnection, RoutingContext.onReplica(this::connection));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(primaryConnection, connection());
+
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    @DisplayName("Недоступная реплика исключается из ротации, при отказе всех реплик чтение идёт на основную БД")
+    void failedReplicaIsEjected_Test() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("replica-1 is down"));
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replica2Connection, RoutingContext.onReplica(this::connection));
+        assertSame(replica2Connection, RoutingContext.onReplica(this::connection));
+        verify(replica1, times(1)).getConnection();
+
+        when(replica2.getConnection()).thenThrow(new SQLException("replica-2 is down"));
+        assertSame(primaryConnection, RoutingContext.onReplica(this::connection));
+        assertSame(primaryConnection, RoutingContext.onReplica(this::connection));
+        verify(replica2, times(3)).getConnection();
+    }
+
+    private Connection connection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.edu.ulab.facade;
+
+import com.edu.ulab.app.config.CacheConfig;
+import com.edu.ulab.app.config.RetryConfig;
+import com.edu.ulab.app.datasource.ReadYourWritesTracker;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.search.BookSearchIndex;
+import com.edu.ulab.app.search.BookSearchIndexLoader;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserBookExportServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserBookImportServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.TaggedUserBookResponse;
+import com.edu.ulab.config.SystemJpaTest;
+import com.vladmihalcea.sql.SQLStatementCountValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static com.vladmihalcea.sql.SQLStatementCountValidator.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Кэш {@link UserDataFacade#getUserWithBooks(Long)}: ответ и его ETag лежат в одной записи.
+ * {@code @DataJpaTest} по умолчанию отключает кэши, поэтому провайдер задан явно.
+ */
+@SystemJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserDataFacade.class, UserServiceImplTemplate.class, BookServiceImplTemplate.class,
+        UserBookExportServiceImplTemplate.class, UserBookImportServiceImplTemplate.class,
+        ReadYourWritesTracker.class, BookSearchIndex.class, BookSearchIndexLoader.class,
+        UserMapperImpl.class, BookMapperImpl.class, RetryConfig.class, CacheConfig.class})
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@DisplayName("Testing cached user with books and its ETag.")
+public class UserDataFacadeCacheTest {
+    private static final String DELETE_BOOK_SQL = "DELETE FROM ulab_edu.book WHERE id = ?";
+    private static final String INSERT_BOOK_SQL = "INSERT INTO ulab_edu.book (id, person_id, title, author, page_count) "
+            + "VALUES (?, ?, 'replacement', 'author', 100)";
+
+    @Autowired
+    UserDataFacade userDataFacade;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    CacheManager cacheManager;
+
+    @DisplayName("Повторное чтение пользователя отдаёт тело и ETag из кэша без select, изменение меняет ETag")
+    @Test
+    @Sql("classpath:sql/1_clear_schema.sql")
+    void getUserWithBooksFromCache_thenAssertDmlCount() {
+        Long userId = userDataFacade.createUserWithBooks(request("Cached User", book("first"))).getUserId();
+        TaggedUserBookResponse loaded = userDataFacade.getUserWithBooks(userId);
+
+        SQLStatementCountValidator.reset();
+        TaggedUserBookResponse cached = userDataFacade.getUserWithBooks(userId);
+
+        assertEquals(loaded.getETag(), cached.getETag());
+        assertArrayEquals(loaded.getResponse().getBooksIdList(), cached.getResponse().getBooksIdList());
+        assertSelectCount(0);
+
+        userDataFacade.updateUser(request("Cached User", book("second")), userId);
+        TaggedUserBookResponse updated = userDataFacade.getUserWithBooks(userId);
+
+        assertNotEquals(loaded.getETag(), updated.getETag());
+        assertEquals(2, updated.getResponse().getBooksIdList().length);
+    }
+
+    @DisplayName("Замена книги с тем же числом книг и тем же наибольшим ID меняет ETag")
+    @Test
+    @Sql("classpath:sql/1_clear_schema.sql")
+    void replaceBookKeepingCountAndMaxId_thenAssertETagChanged_Test() {
+        Long userId = userDataFacade.createUserWithBooks(request("Replaced User", book("first"), book("second")))
+                .getUserId();
+        TaggedUserBookResponse loaded = userDataFacade.getUserWithBooks(userId);
+        long[] bookIds = loaded.getResponse().getBooksIdList();
+
+        jdbcTemplate.update(DELETE_BOOK_SQL, bookIds[0]);
+        jdbcTemplate.update(INSERT_BOOK_SQL, 1L, userId);
+        cacheManager.getCache(CacheConfig.USER_WITH_BOOKS_CACHE).clear();
+        TaggedUserBookResponse replaced = userDataFacade.getUserWithBooks(userId);
+
+        assertArrayEquals(new long[]{1L, bookIds[1]}, replaced.getResponse().getBooksIdList());
+        assertNotEquals(loaded.getETag(), replaced.getETag());
+    }
+
+    private static UserBookRequest request(String fullName, BookRequest... books) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName(fullName);
+        userRequest.setTitle("reader");
+        userRequest.setAge(30);
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of(books));
+        return request;
+    }
+
+    private static BookRequest book(String title) {
+        BookRequest book = new BookRequest();
+        book.setTitle(title);
+        book.setAuthor("author");
+        book.setPageCount(100);
+        return book;
+    }
+}
@@ -0,0 +1,113 @@
+package com.edu.ulab.facade;
+
+import com.edu.ulab.app.datasource.ReadYourWritesTracker;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.repository.UserRepository;
+import com.edu.ulab.app.search.BookSearchIndex;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.BookServiceImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.config.SystemJpaTest;
+import com.vladmihalcea.sql.SQLStatementCountValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.vladmihalcea.sql.SQLStatementCountValidator.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Число запросов {@link UserDataFacade#getAll()} не зависит от числа пользователей - для JdbcTemplate и JPA.
+ * Фасад собирается вручную, чтобы в одном контексте проверить обе реализации сервисов.
+ */
+@SystemJpaTest
+@Import({UserMapperImpl.class, BookMapperImpl.class, BookSearchIndex.class})
+@DisplayName("Testing facade getAll statement count.")
+public class UserDataFacadeGetAllTest {
+    private static final String DELETE_BOOKS_SQL = "DELETE FROM ulab_edu.book WHERE person_id > ?";
+    private static final String DELETE_USERS_SQL = "DELETE FROM ulab_edu.person WHERE id > ?";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    IdAllocator idAllocator;
+    @Autowired
+    BookSearchIndex bookSearchIndex;
+    @Autowired
+    UserMapper userMapper;
+    @Autowired
+    BookMapper bookMapper;
+    @Autowired
+    TestEntityManager entityManager;
+
+    @DisplayName("Получить всех пользователей с книгами. Число select одинаково для 20 и 5 пользователей")
+    @ParameterizedTest
+    @ValueSource(strings = {"template", "jpa"})
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/5_insert_persons_with_books.sql"
+    })
+    void getAll_thenAssertDmlCount(String storage) {
+        UserDataFacade userDataFacade = facade(storage);
+
+        SQLStatementCountValidator.reset();
+        List<UserBookResponse> allUsers = userDataFacade.getAll();
+
+        assertEquals(20, allUsers.size());
+        assertThat(allUsers).allMatch(user -> user.getBooksIdList().length == 3);
+        assertSelectCount(2);
+
+        jdbcTemplate.update(DELETE_BOOKS_SQL, 5005L);
+        jdbcTemplate.update(DELETE_USERS_SQL, 5005L);
+        entityManager.clear();
+
+        SQLStatementCountValidator.reset();
+        List<UserBookResponse> remainingUsers = userDataFacade.getAll();
+
+        assertEquals(5, remainingUsers.size());
+        assertThat(remainingUsers).allMatch(user -> user.getBooksIdList().length == 3);
+        assertSelectCount(2);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    /**
+     * Экспорт и импорт в {@link UserDataFacade#getAll()} не участвуют.
+     */
+    private UserDataFacade facade(String storage) {
+        UserService userService;
+        BookService bookService;
+        if ("jpa".equals(storage)) {
+            userService = new UserServiceImpl(userRepository, userMapper);
+            bookService = new BookServiceImpl(bookRepository, bookMapper, bookSearchIndex);
+        } else {
+            userService = new UserServiceImplTemplate(jdbcTemplate, userMapper, idAllocator);
+            bookService = new BookServiceImplTemplate(jdbcTemplate, bookMapper, idAllocator, bookSearchIndex);
+        }
+        return new UserDataFacade(userService, bookService, null, null,
+                new ReadYourWritesTracker(Duration.ofSeconds(5)), bookSearchIndex, userMapper, bookMapper);
+    }
+}
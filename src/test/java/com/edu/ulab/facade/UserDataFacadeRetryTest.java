@@ -0,0 +1,126 @@
+package com.edu.ulab.facade;
+
+import com.edu.ulab.app.config.RetryConfig;
+import com.edu.ulab.app.datasource.ReadYourWritesTracker;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.search.BookSearchIndex;
+import com.edu.ulab.app.search.BookSearchIndexLoader;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserBookExportServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserBookImportServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.config.SystemJpaTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.edu.ulab.app.web.constant.SQLQueryUserConstant.UPDATE_SQL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Повтор {@link UserDataFacade#updateUser} при конфликте версий. Конфликт создаётся настоящим конкурентным
+ * обновлением: между чтением версии и записью фасада другой поток фиксирует изменение того же пользователя.
+ */
+@SystemJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserDataFacade.class, UserServiceImplTemplate.class, BookServiceImplTemplate.class,
+        UserBookExportServiceImplTemplate.class, UserBookImportServiceImplTemplate.class,
+        ReadYourWritesTracker.class, BookSearchIndex.class, BookSearchIndexLoader.class,
+        UserMapperImpl.class, BookMapperImpl.class, RetryConfig.class})
+@TestPropertySource(properties = {
+        "app.retry.max-attempts=" + UserDataFacadeRetryTest.MAX_ATTEMPTS,
+        "app.retry.delay=1",
+        "app.retry.max-delay=5"})
+@DisplayName("Testing optimistic locking retry of user update.")
+public class UserDataFacadeRetryTest {
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final String CONCURRENT_UPDATE_SQL =
+            "UPDATE ulab_edu.person SET age = age + 1, version = version + 1 WHERE id = ?";
+    private static final String SELECT_USER_SQL = "SELECT full_name, version FROM ulab_edu.person WHERE id = ?";
+
+    @Autowired
+    UserDataFacade userDataFacade;
+    @SpyBean
+    JdbcTemplate jdbcTemplate;
+
+    @DisplayName("Конфликт версий повторяется в новой транзакции, вторая попытка успешна")
+    @Test
+    @Sql("classpath:sql/1_clear_schema.sql")
+    void updateUserAfterConflict_thenAssertRetry_Test() {
+        Long userId = userDataFacade.createUserWithBooks(request("Original User")).getUserId();
+        concurrentUpdatesBeforeWrite(userId, 1);
+
+        userDataFacade.updateUser(request("Updated User"), userId);
+
+        verify(jdbcTemplate, times(2)).update(eq(UPDATE_SQL), any(), any(), any(), any(), any());
+        Map<String, Object> user = jdbcTemplate.queryForMap(SELECT_USER_SQL, userId);
+        assertEquals("Updated User", user.get("full_name"));
+        assertEquals(2L, user.get("version"));
+    }
+
+    @DisplayName("Конфликт на каждой попытке: после max-attempts попыток исключение выходит из фасада")
+    @Test
+    @Sql("classpath:sql/1_clear_schema.sql")
+    void updateUserConflictOnEveryAttempt_thenAssertFailure_Test() {
+        Long userId = userDataFacade.createUserWithBooks(request("Original User")).getUserId();
+        concurrentUpdatesBeforeWrite(userId, Integer.MAX_VALUE);
+        UserBookRequest request = request("Updated User");
+
+        assertThrows(OptimisticLockingFailureException.class, () -> userDataFacade.updateUser(request, userId));
+
+        verify(jdbcTemplate, times(MAX_ATTEMPTS)).update(eq(UPDATE_SQL), any(), any(), any(), any(), any());
+        Map<String, Object> user = jdbcTemplate.queryForMap(SELECT_USER_SQL, userId);
+        assertEquals("Original User", user.get("full_name"));
+        assertEquals((long) MAX_ATTEMPTS, user.get("version"));
+    }
+
+    /**
+     * Перед первыми {@code times} записями пользователя фасадом другой поток в своей транзакции
+     * увеличивает версию пользователя.
+     */
+    private void concurrentUpdatesBeforeWrite(Long userId, int times) {
+        AtomicInteger remaining = new AtomicInteger(times);
+        doAnswer(invocation -> {
+            if (remaining.getAndDecrement() > 0) {
+                CompletableFuture.runAsync(() -> jdbcTemplate.update(CONCURRENT_UPDATE_SQL, userId)).join();
+            }
+            return invocation.callRealMethod();
+        }).when(jdbcTemplate).update(eq(UPDATE_SQL), any(), any(), any(), any(), any());
+    }
+
+    private static UserBookRequest request(String fullName) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName(fullName);
+        userRequest.setTitle("reader");
+        userRequest.setAge(30);
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of());
+        return request;
+    }
+}
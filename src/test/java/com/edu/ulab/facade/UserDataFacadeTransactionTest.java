@@ -0,0 +1,131 @@
+package com.edu.ulab.facade;
+
+import com.edu.ulab.app.config.RetryConfig;
+import com.edu.ulab.app.datasource.ReadYourWritesTracker;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.search.BookSearchIndex;
+import com.edu.ulab.app.search.BookSearchIndexLoader;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserBookExportServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserBookImportServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.config.SystemJpaTest;
+import com.vladmihalcea.sql.SQLStatementCountValidator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static com.vladmihalcea.sql.SQLStatementCountValidator.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Транзакционность операций {@link UserDataFacade}: тест сам транзакцию не открывает,
+ * чтобы были видны коммиты и откаты фасада.
+ */
+@SystemJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserDataFacade.class, UserServiceImplTemplate.class, BookServiceImplTemplate.class,
+        UserBookExportServiceImplTemplate.class, UserBookImportServiceImplTemplate.class,
+        ReadYourWritesTracker.class, BookSearchIndex.class, BookSearchIndexLoader.class,
+        UserMapperImpl.class, BookMapperImpl.class, RetryConfig.class})
+@DisplayName("Testing transactional facade operations.")
+public class UserDataFacadeTransactionTest {
+    private static final String COUNT_BY_NAME_SQL = "SELECT COUNT(*) FROM ulab_edu.person WHERE full_name = ?";
+    private static final String COUNT_BOOKS_SQL = "SELECT COUNT(*) FROM ulab_edu.book WHERE person_id = ?";
+
+    @Autowired
+    UserDataFacade userDataFacade;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        SQLStatementCountValidator.reset();
+    }
+
+    @DisplayName("Создание пользователя с книгами - одна транзакция, пользователь и книги - по одной вставке")
+    @Test
+    @Sql("classpath:sql/1_clear_schema.sql")
+    void createUserWithBooks_thenAssertDmlCount() {
+        UserBookResponse response = userDataFacade.createUserWithBooks(request("Batch User",
+                book("first"), book("second"), book("third")));
+
+        assertThat(response.getBooksIdList()).hasSize(3);
+        assertEquals(3, jdbcTemplate.queryForObject(COUNT_BOOKS_SQL, Long.class, response.getUserId()));
+        assertEquals(1, statistics.getSuccessfulTransactionCount());
+        assertInsertCount(2);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Ошибка на книге откатывает создание пользователя")
+    @Test
+    @Sql("classpath:sql/1_clear_schema.sql")
+    void createUserWithInvalidBook_thenAssertRollback_Test() {
+        UserBookRequest request = request("Partial User", book("valid"), book("x".repeat(51)));
+
+        assertThrows(DataAccessException.class, () -> userDataFacade.createUserWithBooks(request));
+
+        assertEquals(0, jdbcTemplate.queryForObject(COUNT_BY_NAME_SQL, Long.class, "Partial User"));
+        assertEquals(0, statistics.getSuccessfulTransactionCount());
+    }
+
+    @DisplayName("Ошибка на книге откатывает обновление пользователя")
+    @Test
+    @Sql("classpath:sql/1_clear_schema.sql")
+    void updateUserWithInvalidBook_thenAssertRollback_Test() {
+        Long userId = userDataFacade.createUserWithBooks(request("Original User", book("valid"))).getUserId();
+
+        UserBookRequest request = request("Updated User", book("x".repeat(51)));
+        assertThrows(DataAccessException.class, () -> userDataFacade.updateUser(request, userId));
+
+        assertEquals(1, jdbcTemplate.queryForObject(COUNT_BY_NAME_SQL, Long.class, "Original User"));
+        assertEquals(1, jdbcTemplate.queryForObject(COUNT_BOOKS_SQL, Long.class, userId));
+    }
+
+    private static UserBookRequest request(String fullName, BookRequest... books) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName(fullName);
+        userRequest.setTitle("reader");
+        userRequest.setAge(30);
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of(books));
+        return request;
+    }
+
+    private static BookRequest book(String title) {
+        BookRequest book = new BookRequest();
+        book.setTitle(title);
+        book.setAuthor("author");
+        book.setPageCount(100);
+        return book;
+    }
+}
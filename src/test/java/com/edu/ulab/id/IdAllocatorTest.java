@@ -0,0 +1,102 @@
+package com.edu.ulab.id;
+
+import com.edu.ulab.app.id.IdAllocator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.edu.ulab.app.web.constant.SQLQuerySequenceConstant.NEXT_VALUES_SQL;
+import static com.edu.ulab.app.web.constant.SQLQuerySequenceConstant.NEXT_VALUE_SQL;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование {@link IdAllocator}.
+ */
+@DisplayName("Testing hi/lo ID allocator.")
+public class IdAllocatorTest {
+
+    @Test
+    @DisplayName("Идентификаторы выдаются блоками, одно обращение к последовательности на блок")
+    void nextIdReservesBlocks_Test() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(NEXT_VALUE_SQL, Long.class)).thenReturn(5L, 6L);
+        IdAllocator allocator = new IdAllocator(jdbcTemplate);
+
+        long[] ids = allocator.nextIds(102);
+
+        assertArrayEquals(new long[]{500, 501}, Arrays.copyOfRange(ids, 0, 2));
+        assertArrayEquals(new long[]{599, 600, 601}, Arrays.copyOfRange(ids, 99, 102));
+        verify(jdbcTemplate, times(2)).queryForObject(NEXT_VALUE_SQL, Long.class);
+    }
+
+    @Test
+    @DisplayName("Нулевое значение последовательности не выдаёт идентификатор 0")
+    void zeroSequenceValueSkipsZeroId_Test() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(NEXT_VALUE_SQL, Long.class)).thenReturn(0L);
+        IdAllocator allocator = new IdAllocator(jdbcTemplate);
+
+        assertEquals(1L, allocator.nextId());
+    }
+
+    @Test
+    @DisplayName("Резервирование для массовой вставки берёт все блоки одним запросом")
+    void reserveIdsFetchesBlocksInOneQuery_Test() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(NEXT_VALUES_SQL, Long.class, 3)).thenReturn(List.of(0L, 7L, 9L));
+        when(jdbcTemplate.queryForObject(NEXT_VALUE_SQL, Long.class)).thenReturn(12L);
+        IdAllocator allocator = new IdAllocator(jdbcTemplate);
+
+        long[] ids = allocator.reserveIds(300);
+
+        assertEquals(300, ids.length);
+        assertArrayEquals(new long[]{1, 2, 3}, Arrays.copyOfRange(ids, 0, 3));
+        assertArrayEquals(new long[]{99, 700, 701}, Arrays.copyOfRange(ids, 98, 101));
+        assertArrayEquals(new long[]{998, 999, 1200}, Arrays.copyOfRange(ids, 297, 300));
+        verify(jdbcTemplate).queryForList(NEXT_VALUES_SQL, Long.class, 3);
+        verify(jdbcTemplate).queryForObject(NEXT_VALUE_SQL, Long.class);
+    }
+
+    @Test
+    @DisplayName("Конкурентная выдача: идентификаторы уникальны, блоки не теряются")
+    void concurrentNextId_Test() throws Exception {
+        int threads = 8;
+        int idsPerThread = 10_000;
+        int blockSize = IdAllocator.BLOCK_SIZE;
+        AtomicLong sequence = new AtomicLong();
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(NEXT_VALUE_SQL, Long.class))
+                .thenAnswer(invocation -> sequence.incrementAndGet());
+        IdAllocator allocator = new IdAllocator(jdbcTemplate);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> allocator.nextIds(idsPerThread)));
+            }
+            Set<Long> ids = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                for (long id : future.get(30, TimeUnit.SECONDS)) {
+                    assertTrue(ids.add(id), "Duplicate ID: " + id);
+                }
+            }
+            assertEquals(threads * idsPerThread, ids.size());
+            assertEquals(threads * idsPerThread / blockSize, sequence.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.edu.ulab.idempotency;
+
+import com.edu.ulab.app.idempotency.IdempotencyClaim;
+import com.edu.ulab.app.idempotency.IdempotencyStoreJdbc;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.config.SystemJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестирование {@link IdempotencyStoreJdbc}: каждая операция фиксируется сама, как при обработке запроса.
+ */
+@SystemJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(IdempotencyStoreJdbc.class)
+@TestPropertySource(properties = {"app.idempotency.store=db", "app.idempotency.wait-timeout=1s"})
+@DisplayName("Testing idempotency keys in database.")
+public class IdempotencyStoreJdbcTest {
+    private static final String DELETE_KEYS_SQL = "DELETE FROM ulab_edu.idempotency_key";
+    private static final String AGE_KEY_SQL =
+            "UPDATE ulab_edu.idempotency_key SET created_at = created_at - interval '1 minute' WHERE request_id = ?";
+
+    @Autowired
+    IdempotencyStoreJdbc idempotencyStore;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clearKeys() {
+        jdbcTemplate.update(DELETE_KEYS_SQL);
+    }
+
+    @Test
+    @DisplayName("Занятый ключ выполняется для дубликата, после сохранения ответа повтор получает ответ")
+    void claimThenComplete_Test() {
+        IdempotencyClaim claim = idempotencyStore.claim("rq-1", "hash");
+        assertEquals(IdempotencyClaim.Status.ACQUIRED, claim.status());
+        assertEquals(IdempotencyClaim.Status.PENDING, idempotencyStore.claim("rq-1", "hash").status());
+
+        idempotencyStore.complete("rq-1", claim, response());
+
+        IdempotencyClaim replay = idempotencyStore.claim("rq-1", "other-hash");
+        assertEquals(IdempotencyClaim.Status.COMPLETED, replay.status());
+        assertEquals("hash", replay.requestHash());
+        assertArrayEquals(response().getBooksIdList(), replay.response().getBooksIdList());
+    }
+
+    @Test
+    @DisplayName("Ответ, сохранённый в откаченной транзакции создания, не остаётся, ключ освобождается")
+    void completeInRolledBackTransaction_Test() {
+        IdempotencyClaim claim = idempotencyStore.claim("rq-1", "hash");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            idempotencyStore.complete("rq-1", claim, response());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(IdempotencyClaim.Status.PENDING, idempotencyStore.claim("rq-1", "hash").status());
+        idempotencyStore.release("rq-1", claim);
+        assertEquals(IdempotencyClaim.Status.ACQUIRED, idempotencyStore.claim("rq-1", "hash").status());
+    }
+
+    @Test
+    @DisplayName("Брошенный ключ перехватывается, сохранение ответа прежним владельцем отклоняется")
+    void takeOverAbandonedClaim_Test() {
+        IdempotencyClaim abandoned = idempotencyStore.claim("rq-1", "hash");
+        jdbcTemplate.update(AGE_KEY_SQL, "rq-1");
+
+        IdempotencyClaim takenOver = idempotencyStore.claim("rq-1", "hash");
+
+        assertEquals(IdempotencyClaim.Status.ACQUIRED, takenOver.status());
+        assertThrows(IllegalStateException.class, () -> idempotencyStore.complete("rq-1", abandoned, response()));
+        idempotencyStore.release("rq-1", abandoned);
+        idempotencyStore.complete("rq-1", takenOver, response());
+        assertEquals(IdempotencyClaim.Status.COMPLETED, idempotencyStore.claim("rq-1", "hash").status());
+    }
+
+    private static UserBookResponse response() {
+        return UserBookResponse.builder()
+                .userId(1L)
+                .booksIdList(new long[]{10L, 11L})
+                .build();
+    }
+}
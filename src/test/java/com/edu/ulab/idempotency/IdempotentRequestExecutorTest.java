@@ -0,0 +1,147 @@
+package com.edu.ulab.idempotency;
+
+import com.edu.ulab.app.exception.RequestInProgressException;
+import com.edu.ulab.app.idempotency.IdempotencyStoreMemory;
+import com.edu.ulab.app.idempotency.IdempotentRequestExecutor;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестирование {@link IdempotentRequestExecutor} с хранением ключей в памяти, без менеджера транзакций.
+ */
+@DisplayName("Testing idempotent create by request id.")
+public class IdempotentRequestExecutorTest {
+    private static final Object REQUEST = Map.of("fullName", "Test User");
+
+    private final IdempotentRequestExecutor executor = executor(Duration.ofSeconds(10));
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    @DisplayName("Повтор запроса возвращает сохранённый ответ без повторного создания")
+    void replayReturnsStoredResponse_Test() {
+        UserBookResponse first = executor.execute("rq-1", REQUEST, this::create);
+        UserBookResponse replay = executor.execute("rq-1", REQUEST, this::create);
+        UserBookResponse other = executor.execute("rq-2", REQUEST, this::create);
+
+        assertSame(first, replay);
+        assertNotEquals(first.getUserId(), other.getUserId());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    @DisplayName("Дубликат во время выполнения исходного запроса ждёт его ответ")
+    void concurrentDuplicateWaitsForInFlight_Test() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserBookResponse> original = pool.submit(() -> executor.execute("rq-1", REQUEST, () -> {
+                started.countDown();
+                await(release);
+                return create();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<UserBookResponse> duplicate = pool.submit(() -> executor.execute("rq-1", REQUEST, this::create));
+            release.countDown();
+
+            assertSame(original.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Дубликат, не дождавшийся исходного запроса, получает RequestInProgressException")
+    void duplicateTimesOutWhileInFlight_Test() throws Exception {
+        IdempotentRequestExecutor impatient = executor(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<UserBookResponse> original = pool.submit(() -> impatient.execute("rq-1", REQUEST, () -> {
+                started.countDown();
+                await(release);
+                return create();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(RequestInProgressException.class, () -> impatient.execute("rq-1", REQUEST, this::create));
+            release.countDown();
+            assertEquals(1L, original.get(5, TimeUnit.SECONDS).getUserId());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Пустой rqid отклоняется")
+    void blankRequestIdIsRejected_Test() {
+        assertThrows(IllegalArgumentException.class, () -> executor.execute("", REQUEST, this::create));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    @DisplayName("Ошибка не сохраняется, повтор выполняет запрос заново")
+    void failureIsNotStored_Test() {
+        assertThrows(IllegalArgumentException.class, () -> executor.execute("rq-1", REQUEST, () -> {
+            throw new IllegalArgumentException("Invalid request");
+        }));
+
+        UserBookResponse retry = executor.execute("rq-1", REQUEST, this::create);
+
+        assertEquals(1L, retry.getUserId());
+    }
+
+    @Test
+    @DisplayName("Повтор rqid с другим телом запроса отклоняется и не создаёт пользователя")
+    void differentBodyIsRejected_Test() {
+        UserBookResponse first = executor.execute("rq-1", REQUEST, this::create);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> executor.execute("rq-1", Map.of("fullName", "Other User"), this::create));
+        assertSame(first, executor.execute("rq-1", REQUEST, this::create));
+        assertEquals(1, executions.get());
+    }
+
+    private static IdempotentRequestExecutor executor(Duration waitTimeout) {
+        return new IdempotentRequestExecutor(
+                new IdempotencyStoreMemory(Duration.ofHours(1), 100),
+                new ObjectMapper(),
+                new StaticListableBeanFactory().getBeanProvider(PlatformTransactionManager.class),
+                waitTimeout,
+                Duration.ofMillis(5));
+    }
+
+    private UserBookResponse create() {
+        long userId = executions.incrementAndGet();
+        return UserBookResponse.builder()
+                .userId(userId)
+                .booksIdList(new long[]{userId * 10})
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,23 +4,36 @@ import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.repository.BookRepository;
 import com.edu.ulab.app.repository.UserRepository;
+import com.edu.ulab.config.CapturingQueryListener;
 import com.edu.ulab.config.SystemJpaTest;
 import com.vladmihalcea.sql.SQLStatementCountValidator;
+import net.ttddyy.dsproxy.QueryInfo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.transaction.TestTransaction;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import static com.edu.ulab.app.web.constant.SQLQuerySequenceConstant.NEXT_VALUE_SQL;
 import static com.vladmihalcea.sql.SQLStatementCountValidator.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * Тесты репозитория {@link BookRepository}.
+ * Тесты, считающие обращения к последовательности, получают новый контекст, а с ним новый
+ * {@link com.edu.ulab.app.id.IdAllocator} без блока, оставшегося от предыдущих тестов.
  */
 @SystemJpaTest
 public class BookRepositoryTest {
@@ -28,14 +41,18 @@ public class BookRepositoryTest {
     BookRepository bookRepository;
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    TestEntityManager entityManager;
 
     @BeforeEach
     void setUp() {
+        CapturingQueryListener.reset();
         SQLStatementCountValidator.reset();
     }
 
-    @DisplayName("Сохранить книгу и автора. Число select должно равняться 2")
+    @DisplayName("Сохранить книгу и автора. Единственный select - блок идентификаторов")
     @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
     @Rollback
     @Sql({"classpath:sql/1_clear_schema.sql",
             "classpath:sql/2_insert_person_data.sql",
@@ -59,14 +76,16 @@ public class BookRepositoryTest {
 
         assertThat(result.getPageCount()).isEqualTo(1000);
         assertThat(result.getTitle()).isEqualTo("test");
-        assertSelectCount(2);
+        assertEquals(1, CapturingQueryListener.count(NEXT_VALUE_SQL));
+        assertSelectCount(1);
         assertInsertCount(0);
         assertUpdateCount(0);
         assertDeleteCount(0);
     }
 
-    @DisplayName("Обновить книгу")
+    @DisplayName("Обновить книгу. Единственный select - блок идентификаторов")
     @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
     @Rollback
     @Sql({"classpath:sql/1_clear_schema.sql",
             "classpath:sql/2_insert_person_data.sql",
@@ -91,7 +110,8 @@ public class BookRepositoryTest {
         result.setPageCount(100);
         result = bookRepository.save(result);
 
-        assertSelectCount(2);
+        assertEquals(1, CapturingQueryListener.count(NEXT_VALUE_SQL));
+        assertSelectCount(1);
         assertInsertCount(0);
         assertUpdateCount(0);
         assertDeleteCount(0);
@@ -139,4 +159,152 @@ public class BookRepositoryTest {
         assertUpdateCount(0);
         assertDeleteCount(1);
     }
+
+    @DisplayName("Получить книги нескольких пользователей. Число select не зависит от числа пользователей")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void getBooksByUserIds_thenAssertDmlCount() {
+        int usersCount = 20;
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < usersCount; i++) {
+            Person person = new Person();
+            person.setAge(20 + i);
+            person.setTitle("reader " + i);
+            person.setFullName("Test Test");
+            Person savedPerson = userRepository.save(person);
+            userIds.add(savedPerson.getId());
+
+            for (int j = 0; j < 3; j++) {
+                Book book = new Book();
+                book.setAuthor("Test Author");
+                book.setTitle("test " + j);
+                book.setPageCount(100 + j);
+                book.setPerson(savedPerson);
+                bookRepository.save(book);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SQLStatementCountValidator.reset();
+
+        Map<Long, List<Book>> booksByUserId = bookRepository.findByPersonIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(book -> book.getPerson().getId()));
+
+        assertThat(booksByUserId).hasSize(usersCount);
+        assertThat(booksByUserId.values()).allMatch(books -> books.size() == 3);
+        assertSelectCount(1);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Удалить книги нескольких пользователей одним запросом")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void deleteBooksByUserIds_thenAssertDmlCount() {
+        int deleted = bookRepository.deleteByPersonIdIn(List.of(1001L, 4004L));
+
+        assertThat(deleted).isEqualTo(2);
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(1);
+    }
+
+    @DisplayName("Обход пользователей книг. Ленивые пользователи догружаются одним select")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/5_insert_persons_with_books.sql"
+    })
+    void traverseBookPersons_thenAssertDmlCount() {
+        List<Long> userIds = LongStream.rangeClosed(5001L, 5020L).boxed().toList();
+
+        List<Book> books = bookRepository.findByPersonIdIn(userIds);
+        long distinctNames = books.stream()
+                .map(book -> book.getPerson().getFullName())
+                .distinct()
+                .count();
+
+        assertThat(books).hasSize(60);
+        assertEquals(20, distinctNames);
+        assertSelectCount(2);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Повторный запрос книг пользователя берётся из кэша второго уровня без select")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void getBooksByUserIdFromQueryCache_thenAssertDmlCount() {
+        List<Book> books = bookRepository.findByPersonId(1001L);
+        startNewTransaction();
+
+        List<Book> cachedBooks = bookRepository.findByPersonId(1001L);
+
+        assertThat(cachedBooks).extracting(Book::getId)
+                .containsExactlyElementsOf(books.stream().map(Book::getId).toList());
+        assertThat(cachedBooks.get(0).getTitle()).isEqualTo("default book");
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Сохранить несколько книг. Вставки уходят одной JDBC-пачкой")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql"
+    })
+    void saveBooks_thenAssertBatchedInsert() {
+        Person person = userRepository.findById(1001L).orElseThrow();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book();
+            book.setAuthor("Test Author");
+            book.setTitle("test " + i);
+            book.setPageCount(100);
+            book.setPerson(person);
+            books.add(book);
+        }
+        CapturingQueryListener.reset();
+        SQLStatementCountValidator.reset();
+
+        bookRepository.saveAll(books);
+        entityManager.flush();
+
+        List<QueryInfo> inserts = CapturingQueryListener.getQueries().stream()
+                .filter(query -> query.getQuery().toLowerCase().startsWith("insert into ulab_edu.book"))
+                .toList();
+        assertThat(inserts).hasSize(1);
+        assertThat(inserts.get(0).getParametersList()).hasSize(3);
+        assertInsertCount(1);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    /**
+     * Записи READ_WRITE-кэша видны только сессиям, начатым после их записи, поэтому повторное чтение
+     * идёт в новой транзакции. Данные фиксируются, их удалит 1_clear_schema следующего теста.
+     */
+    private void startNewTransaction() {
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        TestTransaction.start();
+        SQLStatementCountValidator.reset();
+    }
 }
@@ -0,0 +1,174 @@
+package com.edu.ulab.repository;
+
+import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.repository.UserRepository;
+import com.edu.ulab.app.web.constant.SQLQueryBookConstant;
+import com.edu.ulab.app.web.constant.SQLQueryUserConstant;
+import com.edu.ulab.config.CapturingQueryListener;
+import com.edu.ulab.config.SystemJpaTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Регрессия планов запросов: на заполненных таблицах ни один точечный запрос
+ * не должен читать {@code person} или {@code book} последовательным сканированием.
+ * Выборки всех строк ({@code SELECT_ALL_SQL}, выгрузка) сюда не входят: для них seq scan - правильный план.
+ */
+@SystemJpaTest
+public class QueryPlanTest {
+    private static final String EXPLAIN = "EXPLAIN (FORMAT JSON) ";
+    private static final String SEQ_SCAN = "Seq Scan";
+
+    private static final long USER_ID = 50_000L;
+    private static final long BOOK_ID = 1_250_000L;
+    private static final Long[] USER_IDS = LongStream.rangeClosed(USER_ID, USER_ID + 19).boxed().toArray(Long[]::new);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @DisplayName("Запросы JdbcTemplate не используют seq scan")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/4_insert_large_dataset.sql"
+    })
+    void templateQueries_thenAssertNoSeqScan() {
+        Map<String, List<Object>> queries = new LinkedHashMap<>();
+        queries.put(SQLQueryUserConstant.SELECT_BY_ID_SQL, List.of(USER_ID));
+        queries.put(SQLQueryUserConstant.UPDATE_SQL, List.of("name", "title", 30, USER_ID, 0L));
+        queries.put(SQLQueryUserConstant.DELETE_BY_ID_SQL, List.of(USER_ID));
+        queries.put(SQLQueryUserConstant.DELETE_BY_IDS_SQL, List.of((Object) USER_IDS));
+        queries.put(SQLQueryUserConstant.SELECT_PAGE_AFTER_ID_SQL, List.of(USER_ID, 100));
+        queries.put(SQLQueryBookConstant.SELECT_BY_ID_SQL, List.of(BOOK_ID));
+        queries.put(SQLQueryBookConstant.UPDATE_SQL, List.of("title", "author", 100, USER_ID, BOOK_ID, 0L));
+        queries.put(SQLQueryBookConstant.DELETE_BY_ID_SQL, List.of(BOOK_ID));
+        queries.put(SQLQueryBookConstant.DELETE_BY_USER_ID_SQL, List.of(USER_ID));
+        queries.put(SQLQueryBookConstant.DELETE_BY_USER_IDS_SQL, List.of((Object) USER_IDS));
+        queries.put(SQLQueryBookConstant.SELECT_BY_USER_ID_SQL, List.of(USER_ID));
+        queries.put(SQLQueryBookConstant.SELECT_IDS_BY_USER_ID_SQL, List.of(USER_ID));
+        queries.put(SQLQueryBookConstant.SELECT_IDS_BY_USER_IDS_SQL, List.of((Object) USER_IDS));
+        queries.put(SQLQueryBookConstant.SELECT_BY_ID_RANGE_SQL, List.of(BOOK_ID, BOOK_ID + 100));
+
+        List<String> seqScans = new ArrayList<>();
+        queries.forEach((sql, args) -> seqScans.addAll(findSeqScans(sql, args)));
+
+        assertTrue(seqScans.isEmpty(), "Seq scan in plans: " + seqScans);
+    }
+
+    @DisplayName("Запросы репозиториев не используют seq scan")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/4_insert_large_dataset.sql"
+    })
+    void repositoryQueries_thenAssertNoSeqScan() {
+        List<Long> userIds = List.of(USER_IDS);
+        CapturingQueryListener.reset();
+
+        userRepository.findById(USER_ID);
+        userRepository.findByIdForUpdate(USER_ID);
+        userRepository.findByIdGreaterThanOrderByIdAsc(USER_ID, PageRequest.of(0, 100));
+        bookRepository.findById(BOOK_ID);
+        bookRepository.findByPersonId(USER_ID);
+        bookRepository.findByPersonIdIn(userIds);
+        bookRepository.findIdsByPersonId(USER_ID);
+        bookRepository.findIdsByPersonIdIn(userIds);
+        bookRepository.deleteByPersonIdIn(userIds);
+        userRepository.deleteByIdIn(userIds);
+
+        List<QueryInfo> captured = CapturingQueryListener.getQueries();
+        assertFalse(captured.isEmpty(), "No queries captured");
+
+        List<String> seqScans = new ArrayList<>();
+        for (QueryInfo query : captured) {
+            seqScans.addAll(findSeqScans(query.getQuery(), boundArgs(query)));
+        }
+
+        assertTrue(seqScans.isEmpty(), "Seq scan in plans: " + seqScans);
+    }
+
+    private List<String> findSeqScans(String sql, List<Object> args) {
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(EXPLAIN + sql)) {
+                for (int i = 0; i < args.size(); i++) {
+                    Object arg = args.get(i);
+                    if (arg instanceof Long[] ids) {
+                        ps.setArray(i + 1, connection.createArrayOf("bigint", ids));
+                    } else {
+                        ps.setObject(i + 1, arg);
+                    }
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+        List<String> seqScans = new ArrayList<>();
+        try {
+            collectSeqScans(sql, objectMapper.readTree(plan).get(0).get("Plan"), seqScans);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return seqScans;
+    }
+
+    private static void collectSeqScans(String sql, JsonNode node, List<String> seqScans) {
+        if (SEQ_SCAN.equals(node.path("Node Type").asText())) {
+            seqScans.add(node.path("Relation Name").asText() + " in: " + sql);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(sql, child, seqScans);
+        }
+    }
+
+    /**
+     * Параметры запроса в порядке индексов, как их передал Hibernate.
+     */
+    private static List<Object> boundArgs(QueryInfo query) {
+        List<Object> args = new ArrayList<>();
+        if (query.getParametersList().isEmpty()) {
+            return args;
+        }
+        for (ParameterSetOperation operation : query.getParametersList().get(0)) {
+            Object[] operationArgs = operation.getArgs();
+            int index = (Integer) operationArgs[0];
+            while (args.size() < index) {
+                args.add(null);
+            }
+            args.set(index - 1, "setNull".equals(operation.getMethod().getName()) ? null : operationArgs[1]);
+        }
+        return args;
+    }
+}
@@ -2,18 +2,24 @@ package com.edu.ulab.repository;
 
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.repository.UserRepository;
+import com.edu.ulab.config.CapturingQueryListener;
 import com.edu.ulab.config.SystemJpaTest;
 import com.vladmihalcea.sql.SQLStatementCountValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.transaction.TestTransaction;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.edu.ulab.app.web.constant.SQLQuerySequenceConstant.NEXT_VALUE_SQL;
 import static com.vladmihalcea.sql.SQLStatementCountValidator.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertFalse;
@@ -21,19 +27,25 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * Тесты репозитория {@link UserRepository}.
+ * Тесты, считающие обращения к последовательности, получают новый контекст, а с ним новый
+ * {@link com.edu.ulab.app.id.IdAllocator} без блока, оставшегося от предыдущих тестов.
  */
 @SystemJpaTest
 public class UserRepositoryTest {
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    TestEntityManager entityManager;
 
     @BeforeEach
     void setUp() {
+        CapturingQueryListener.reset();
         SQLStatementCountValidator.reset();
     }
 
-    @DisplayName("Сохранить юзера. Число select должно равняться 1")
+    @DisplayName("Сохранить юзера. Единственный select - блок идентификаторов")
     @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
     @Rollback
     @Sql({"classpath:sql/1_clear_schema.sql",
             "classpath:sql/2_insert_person_data.sql",
@@ -48,6 +60,7 @@ public class UserRepositoryTest {
         Person result = userRepository.save(person);
 
         assertThat(result.getAge()).isEqualTo(111);
+        assertEquals(1, CapturingQueryListener.count(NEXT_VALUE_SQL));
         assertSelectCount(1);
         assertInsertCount(0);
         assertUpdateCount(0);
@@ -138,4 +151,77 @@ public class UserRepositoryTest {
         assertUpdateCount(0);
         assertDeleteCount(0);
     }
+
+    @DisplayName("Получение страницы пользователей после заданного ID.")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void getPersonPageAfterId_thenAssertDmlCount() {
+        List<Person> firstPage = userRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10));
+        List<Person> nextPage = userRepository.findByIdGreaterThanOrderByIdAsc(1001L, PageRequest.of(0, 10));
+
+        assertEquals(1, firstPage.size());
+        assertThat(firstPage.get(0).getId()).isEqualTo(1001L);
+        assertThat(nextPage).isEmpty();
+        assertSelectCount(2);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Обход книг страницы пользователей. Коллекции догружаются одним select")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/5_insert_persons_with_books.sql"
+    })
+    void traversePersonPageBooks_thenAssertDmlCount() {
+        List<Person> persons = userRepository.findByIdGreaterThanOrderByIdAsc(5000L, PageRequest.of(0, 20));
+
+        int books = persons.stream()
+                .mapToInt(person -> person.getBookSet().size())
+                .sum();
+
+        assertEquals(20, persons.size());
+        assertEquals(60, books);
+        assertSelectCount(2);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Повторное чтение пользователя с книгами берётся из кэша второго уровня без select")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/5_insert_persons_with_books.sql"
+    })
+    void getPersonWithBooksFromSecondLevelCache_thenAssertDmlCount() {
+        Person person = userRepository.findById(5001L).orElseThrow();
+        int books = person.getBookSet().size();
+        startNewTransaction();
+
+        Person cachedPerson = userRepository.findById(5001L).orElseThrow();
+
+        assertEquals(books, cachedPerson.getBookSet().size());
+        assertEquals(person.getFullName(), cachedPerson.getFullName());
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    /**
+     * Записи READ_WRITE-кэша видны только сессиям, начатым после их записи, поэтому повторное чтение
+     * идёт в новой транзакции. Данные фиксируются, их удалит 1_clear_schema следующего теста.
+     */
+    private void startNewTransaction() {
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        TestTransaction.start();
+        SQLStatementCountValidator.reset();
+    }
 }
@@ -0,0 +1,134 @@
+package com.edu.ulab.search;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.search.BookSearchField;
+import com.edu.ulab.app.search.BookSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестирование {@link BookSearchIndex}.
+ */
+@DisplayName("Testing book search index.")
+public class BookSearchIndexTest {
+    private final BookSearchIndex index = new BookSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.addAll(List.of(
+                book(1L, 10L, "War and Peace", "Leo Tolstoy"),
+                book(2L, 10L, "Anna Karenina", "Leo Tolstoy"),
+                book(3L, 20L, "Crime and Punishment", "Fyodor Dostoevsky"),
+                book(4L, 20L, "Война и мир", "Лев Толстой"),
+                book(5L, 30L, "Peace Talks", "Jim Butcher")));
+    }
+
+    @Test
+    @DisplayName("Поиск по слову без учёта регистра, результаты по возрастанию ID")
+    void searchByToken_Test() {
+        assertEquals(List.of(1L, 5L), ids(index.search("PEACE", BookSearchField.ANY, 0L, 10)));
+        assertEquals(List.of(4L), ids(index.search("мир", BookSearchField.TITLE, 0L, 10)));
+    }
+
+    @Test
+    @DisplayName("Последнее слово ищется по префиксу, остальные - целиком")
+    void searchByPrefix_Test() {
+        assertEquals(List.of(1L, 2L), ids(index.search("leo tol", BookSearchField.ANY, 0L, 10)));
+        assertEquals(List.of(3L), ids(index.search("Dost", BookSearchField.AUTHOR, 0L, 10)));
+        assertTrue(index.search("tol leo", BookSearchField.ANY, 0L, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Запрос с пробелом в конце ищет последнее слово целиком")
+    void searchCompleteLastWord_Test() {
+        assertEquals(List.of(1L, 5L), ids(index.search("pea", BookSearchField.ANY, 0L, 10)));
+        assertTrue(index.search("pea ", BookSearchField.ANY, 0L, 10).isEmpty());
+        assertEquals(List.of(1L, 5L), ids(index.search("peace ", BookSearchField.ANY, 0L, 10)));
+    }
+
+    @Test
+    @DisplayName("Поиск ограничивается выбранным полем")
+    void searchByField_Test() {
+        assertTrue(index.search("tolstoy", BookSearchField.TITLE, 0L, 10).isEmpty());
+        assertEquals(List.of(1L, 2L), ids(index.search("tolstoy", BookSearchField.AUTHOR, 0L, 10)));
+        assertEquals(List.of(1L, 3L), ids(index.search("and", BookSearchField.TITLE, 0L, 10)));
+    }
+
+    @Test
+    @DisplayName("Страницы продолжаются после ID последней книги")
+    void searchPages_Test() {
+        index.addAll(List.of(book(6L, 30L, "Peace Maker", "Someone")));
+
+        assertEquals(List.of(1L, 5L), ids(index.search("peace", BookSearchField.ANY, 0L, 2)));
+        assertEquals(List.of(6L), ids(index.search("peace", BookSearchField.ANY, 5L, 2)));
+    }
+
+    @Test
+    @DisplayName("Удалённые книги и книги удалённых пользователей не находятся")
+    void removeBooks_Test() {
+        index.remove(1L);
+        assertEquals(List.of(5L), ids(index.search("peace", BookSearchField.ANY, 0L, 10)));
+
+        index.removeByUserIds(List.of(20L));
+        assertTrue(index.search("crime", BookSearchField.ANY, 0L, 10).isEmpty());
+        assertTrue(index.search("война", BookSearchField.ANY, 0L, 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Повторное добавление книги заменяет её слова")
+    void replaceBook_Test() {
+        index.addAll(List.of(book(5L, 30L, "Cold Days", "Jim Butcher")));
+
+        assertEquals(List.of(1L), ids(index.search("peace", BookSearchField.ANY, 0L, 10)));
+        assertEquals(List.of(5L), ids(index.search("cold", BookSearchField.ANY, 0L, 10)));
+    }
+
+    @Test
+    @DisplayName("Изменения внутри транзакции видны только после коммита")
+    void changesAppliedAfterCommit_Test() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.addAll(List.of(book(7L, 40L, "Uncommitted", "Nobody")));
+            index.remove(1L);
+
+            assertTrue(index.search("uncommitted", BookSearchField.ANY, 0L, 10).isEmpty());
+            assertEquals(List.of(1L, 5L), ids(index.search("peace", BookSearchField.ANY, 0L, 10)));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of(7L), ids(index.search("uncommitted", BookSearchField.ANY, 0L, 10)));
+        assertEquals(List.of(5L), ids(index.search("peace", BookSearchField.ANY, 0L, 10)));
+    }
+
+    @Test
+    @DisplayName("Запрос без слов отклоняется")
+    void emptyQuery_Test() {
+        assertThrows(IllegalArgumentException.class, () -> index.search(" ,. ", BookSearchField.ANY, 0L, 10));
+    }
+
+    private static List<Long> ids(List<BookDto> books) {
+        return books.stream()
+                .map(BookDto::getId)
+                .toList();
+    }
+
+    private static BookDto book(long id, long userId, String title, String author) {
+        BookDto book = new BookDto();
+        book.setId(id);
+        book.setUserId(userId);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setPageCount(100);
+        return book;
+    }
+}
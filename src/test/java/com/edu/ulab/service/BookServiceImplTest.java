@@ -5,7 +5,9 @@ import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.repository.BookIdView;
 import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.search.BookSearchIndex;
 import com.edu.ulab.app.service.impl.BookServiceImpl;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,6 +19,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,6 +41,9 @@ public class BookServiceImplTest {
     @Mock
     BookMapper bookMapper;
 
+    @Mock
+    BookSearchIndex bookSearchIndex;
+
     @Test
     @DisplayName("Создание книги. Должно пройти успешно.")
     void saveBook_Test() {
@@ -78,6 +84,47 @@ public class BookServiceImplTest {
         assertEquals(1L, bookDtoResult.getId());
     }
 
+    @Test
+    @DisplayName("Создание нескольких книг одной пачкой. Должно пройти успешно.")
+    void saveBooks_Test() {
+        BookDto bookDto = new BookDto();
+        bookDto.setUserId(1L);
+        bookDto.setTitle("test title");
+
+        BookDto bookDto2 = new BookDto();
+        bookDto2.setUserId(1L);
+        bookDto2.setTitle("test title2");
+
+        Book book = new Book();
+        book.setTitle("test title");
+
+        Book book2 = new Book();
+        book2.setTitle("test title2");
+
+        Book savedBook = new Book();
+        savedBook.setId(1L);
+
+        Book savedBook2 = new Book();
+        savedBook2.setId(2L);
+
+        BookDto result = new BookDto();
+        result.setId(1L);
+
+        BookDto result2 = new BookDto();
+        result2.setId(2L);
+
+        when(bookMapper.bookDtoToBook(bookDto)).thenReturn(book);
+        when(bookMapper.bookDtoToBook(bookDto2)).thenReturn(book2);
+        when(bookRepository.saveAll(List.of(book, book2))).thenReturn(List.of(savedBook, savedBook2));
+        when(bookMapper.bookToBookDto(savedBook)).thenReturn(result);
+        when(bookMapper.bookToBookDto(savedBook2)).thenReturn(result2);
+
+        List<BookDto> savedBooks = bookService.createBooks(List.of(bookDto, bookDto2));
+        assertEquals(List.of(result, result2), savedBooks);
+        verify(bookRepository, times(1)).saveAll(anyList());
+        verify(bookRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Получение книги по ID")
     void getBookById_Test() {
@@ -154,6 +201,21 @@ public class BookServiceImplTest {
         assertEquals(2, booksByUserId.size());
     }
 
+    @Test
+    @DisplayName("Получение ID книг нескольких пользователей. ID группируются по пользователю")
+    void getBookIdsByUserIds_Test() {
+        List<Long> userIds = List.of(1L, 2L, 3L);
+
+        when(bookRepository.findIdsByPersonIdIn(userIds)).thenReturn(List.of(
+                bookIdView(1L, 10L), bookIdView(1L, 11L), bookIdView(3L, 30L)));
+
+        Map<Long, long[]> bookIdsByUserId = bookService.getBookIdsByUserIds(userIds);
+        assertEquals(2, bookIdsByUserId.size());
+        assertArrayEquals(new long[]{10L, 11L}, bookIdsByUserId.get(1L));
+        assertArrayEquals(new long[]{30L}, bookIdsByUserId.get(3L));
+        assertFalse(bookIdsByUserId.containsKey(2L));
+    }
+
     @Test
     @DisplayName("Удаление книги по ID")
     void deleteBookByID_Test() {
@@ -180,4 +242,18 @@ public class BookServiceImplTest {
 
         assertThrows(NotFoundException.class, () -> bookService.getBookById(1L));
     }
+
+    private static BookIdView bookIdView(Long personId, Long id) {
+        return new BookIdView() {
+            @Override
+            public Long getPersonId() {
+                return personId;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+        };
+    }
 }
@@ -0,0 +1,78 @@
+package com.edu.ulab.service;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.search.BookSearchField;
+import com.edu.ulab.app.search.BookSearchIndex;
+import com.edu.ulab.app.search.BookSearchIndexLoader;
+import com.edu.ulab.app.service.impl.UserBookImportServiceImplTemplate;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookImportResponse;
+import com.edu.ulab.config.SystemJpaTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Массовая загрузка и индекс поиска: книги всех порций находятся поиском после коммита загрузки.
+ */
+@SystemJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserBookImportServiceImplTemplate.class, BookSearchIndex.class, BookSearchIndexLoader.class})
+@TestPropertySource(properties = "app.import.chunk-size=2")
+@DisplayName("Testing bulk import and search index.")
+public class UserBookImportServiceImplTemplateTest {
+    @Autowired
+    UserBookImportServiceImplTemplate importService;
+    @Autowired
+    BookSearchIndex bookSearchIndex;
+
+    @DisplayName("Книги из нескольких порций загрузки попадают в индекс поиска")
+    @Test
+    @Sql("classpath:sql/1_clear_schema.sql")
+    void importAllThenSearch_Test() {
+        List<UserBookRequest> requests = IntStream.range(0, 5)
+                .mapToObj(i -> request(i, "Imported Title " + i, "Imported Title Extra " + i))
+                .toList();
+
+        UserBookImportResponse response = importService.importAll(requests.iterator());
+
+        assertEquals(5, response.getUsers());
+        assertEquals(10, response.getBooks());
+        List<BookDto> found = bookSearchIndex.search("imported title", BookSearchField.TITLE, 0, 100);
+        assertEquals(10, found.size());
+        assertEquals(5, bookSearchIndex.search("extra", BookSearchField.TITLE, 0, 100).size());
+    }
+
+    private static UserBookRequest request(int user, String... titles) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Imported User " + user);
+        userRequest.setTitle("reader " + user);
+        userRequest.setAge(30);
+
+        List<BookRequest> books = new ArrayList<>();
+        for (String title : titles) {
+            BookRequest book = new BookRequest();
+            book.setTitle(title);
+            book.setAuthor("author");
+            book.setPageCount(100);
+            books.add(book);
+        }
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(books);
+        return request;
+    }
+}
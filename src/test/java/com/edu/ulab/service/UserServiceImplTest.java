@@ -113,8 +113,8 @@ public class UserServiceImplTest {
 
         when(userMapper.userDtoToPerson(userDtoForUpdate)).thenReturn(personForUpdate);
         when(userRepository.findById(userId)).thenReturn(Optional.of(personFromDB));
-        when(userRepository.save(personForUpdate)).thenReturn(personForUpdate);
-        when(userMapper.personToUserDto(personForUpdate)).thenReturn(userDtoResult);
+        when(userRepository.save(personFromDB)).thenReturn(savedUpdatePerson);
+        when(userMapper.personToUserDto(savedUpdatePerson)).thenReturn(userDtoResult);
 
         UserDto userUpdateDtoResult = userService.updateUser(userDtoForUpdate, userId);
         assertEquals("new user name", userUpdateDtoResult.getFullName());
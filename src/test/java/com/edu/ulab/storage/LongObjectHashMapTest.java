@@ -0,0 +1,50 @@
+package com.edu.ulab.storage;
+
+import com.edu.ulab.app.storage.LongObjectHashMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестирование {@link LongObjectHashMap}.
+ */
+@DisplayName("Testing long-keyed hash map.")
+public class LongObjectHashMapTest {
+
+    @Test
+    @DisplayName("Случайные вставки и удаления совпадают с HashMap")
+    void randomOperations_Test() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Ключ 0 зарезервирован. Будет брошено исключение.")
+    void reservedKey_Test() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(0L, "value"));
+    }
+}
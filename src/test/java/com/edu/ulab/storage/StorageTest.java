@@ -0,0 +1,252 @@
+package com.edu.ulab.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.storage.Storage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестирование хранилища {@link Storage}, в том числе при конкурентном доступе.
+ */
+@DisplayName("Testing in-memory storage.")
+public class StorageTest {
+    private static final int THREADS = 8;
+    private static final int USERS_PER_THREAD = 500;
+    private static final int BOOKS_PER_USER = 4;
+
+    Storage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new Storage();
+    }
+
+    @Test
+    @DisplayName("Сохранение пользователя с книгами и поиск по индексу")
+    void savePersonWithBooks_Test() {
+        Person person = storage.savePerson(person("test user"));
+        Book book = storage.saveBook(book(person.getId(), "first"));
+        Book book2 = storage.saveBook(book(person.getId(), "second"));
+
+        assertThat(storage.findPersonById(person.getId())).isPresent();
+        assertArrayEquals(new long[]{book.getId(), book2.getId()}, storage.findBookIdsByPersonId(person.getId()));
+        assertEquals("second", storage.findBookById(book2.getId()).orElseThrow().getTitle());
+
+        assertTrue(storage.deleteBookById(book.getId()));
+        assertArrayEquals(new long[]{book2.getId()}, storage.findBookIdsByPersonId(person.getId()));
+        assertEquals(1, storage.deleteBooksByPersonId(person.getId()));
+        assertEquals(0, storage.findBookIdsByPersonId(person.getId()).length);
+    }
+
+    @Test
+    @DisplayName("Изменение возвращённой сущности не меняет данные в хранилище")
+    void returnedEntityIsCopy_Test() {
+        Person person = storage.savePerson(person("test user"));
+        person.setFullName("changed");
+
+        assertEquals("test user", storage.findPersonById(person.getId()).orElseThrow().getFullName());
+    }
+
+    @Test
+    @DisplayName("Версия пользователя растёт при перезаписи")
+    void personVersion_Test() {
+        Person person = storage.savePerson(person("test user"));
+        assertEquals(0, storage.findPersonById(person.getId()).orElseThrow().getVersion());
+
+        person.setFullName("changed");
+        assertEquals(1, storage.savePerson(person).getVersion());
+        assertEquals(1, storage.findPersonById(person.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Перезапись существующего пользователя увеличивает версию, отсутствующий не создаётся")
+    void replacePerson_Test() {
+        Person person = storage.savePerson(person("test user"));
+        person.setFullName("changed");
+
+        Person replaced = storage.replacePerson(person).orElseThrow();
+
+        assertEquals(1, replaced.getVersion());
+        assertEquals("changed", storage.findPersonById(person.getId()).orElseThrow().getFullName());
+
+        Person absent = person("absent");
+        absent.setId(42L);
+        assertThat(storage.replacePerson(absent)).isEmpty();
+        assertThat(storage.findPersonById(42L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Конкурентные перезапись и удаление: удалённые пользователи не появляются снова")
+    void concurrentReplaceAndDelete_Test() throws Exception {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < THREADS * USERS_PER_THREAD; i++) {
+            persons.add(storage.savePerson(person("user " + i)));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<List<Long>>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Person> part = persons.subList(t * USERS_PER_THREAD, (t + 1) * USERS_PER_THREAD);
+            tasks.add(() -> {
+                start.await();
+                List<Long> deleted = new ArrayList<>();
+                for (Person person : part) {
+                    if (storage.deletePersonById(person.getId())) {
+                        deleted.add(person.getId());
+                    }
+                }
+                return deleted;
+            });
+            tasks.add(() -> {
+                start.await();
+                for (Person person : part) {
+                    storage.replacePerson(person);
+                }
+                return List.of();
+            });
+        }
+
+        List<Long> deleted = runConcurrently(tasks, start);
+
+        assertEquals(persons.size(), deleted.size());
+        assertThat(storage.findAllPersons()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Постраничное чтение пользователей в порядке ID")
+    void findPersonsAfter_Test() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(storage.savePerson(person("user " + i)).getId());
+        }
+        storage.deletePersonById(ids.get(3));
+
+        List<Person> page = storage.findPersonsAfter(ids.get(1), 3);
+
+        assertThat(page).extracting(Person::getId).containsExactly(ids.get(2), ids.get(4), ids.get(5));
+    }
+
+    @Test
+    @DisplayName("Книга несуществующего пользователя. Будет брошено исключение.")
+    void saveBookWithoutPerson_Test() {
+        assertThrows(NotFoundException.class, () -> storage.saveBook(book(42L, "orphan")));
+    }
+
+    @Test
+    @DisplayName("Конкурентное создание пользователей и книг: уникальные ID и согласованный индекс")
+    void concurrentSave_Test() throws Exception {
+        List<Callable<List<Long>>> tasks = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                start.await();
+                List<Long> personIds = new ArrayList<>();
+                for (int i = 0; i < USERS_PER_THREAD; i++) {
+                    Person person = storage.savePerson(person("user"));
+                    for (int j = 0; j < BOOKS_PER_USER; j++) {
+                        storage.saveBook(book(person.getId(), "book " + j));
+                    }
+                    personIds.add(person.getId());
+                }
+                return personIds;
+            });
+        }
+
+        List<Long> personIds = runConcurrently(tasks, start);
+
+        Set<Long> allIds = new HashSet<>(personIds);
+        assertEquals(THREADS * USERS_PER_THREAD, allIds.size());
+        assertEquals(THREADS * USERS_PER_THREAD, storage.findAllPersons().size());
+        for (Long personId : personIds) {
+            long[] bookIds = storage.findBookIdsByPersonId(personId);
+            assertEquals(BOOKS_PER_USER, bookIds.length);
+            Arrays.stream(bookIds).forEach(bookId -> assertTrue(allIds.add(bookId)));
+        }
+    }
+
+    @Test
+    @DisplayName("Конкурентное удаление книг и чтение индекса")
+    void concurrentDeleteAndRead_Test() throws Exception {
+        Person person = storage.savePerson(person("user"));
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < THREADS * USERS_PER_THREAD; i++) {
+            bookIds.add(storage.saveBook(book(person.getId(), "book " + i)).getId());
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<List<Long>>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Long> part = bookIds.subList(t * USERS_PER_THREAD, (t + 1) * USERS_PER_THREAD);
+            tasks.add(() -> {
+                start.await();
+                List<Long> deleted = new ArrayList<>();
+                for (Long bookId : part) {
+                    if (storage.deleteBookById(bookId)) {
+                        deleted.add(bookId);
+                    }
+                    assertThat(storage.findBookIdsByPersonId(person.getId()).length).isLessThan(bookIds.size());
+                }
+                return deleted;
+            });
+        }
+
+        List<Long> deleted = runConcurrently(tasks, start);
+
+        assertEquals(bookIds.size(), deleted.size());
+        assertEquals(0, storage.findBookIdsByPersonId(person.getId()).length);
+    }
+
+    private List<Long> runConcurrently(List<Callable<List<Long>>> tasks, CountDownLatch start) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            tasks.forEach(task -> futures.add(executor.submit(task)));
+            start.countDown();
+            List<Long> result = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                result.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Person person(String fullName) {
+        Person person = new Person();
+        person.setFullName(fullName);
+        person.setTitle("reader");
+        person.setAge(30);
+        return person;
+    }
+
+    private static Book book(long personId, String title) {
+        Person person = new Person();
+        person.setId(personId);
+
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("author");
+        book.setPageCount(100);
+        book.setPerson(person);
+        return book;
+    }
+}
@@ -0,0 +1,100 @@
+package com.edu.ulab.web;
+
+import com.edu.ulab.app.config.MessageConverterConfig;
+import com.edu.ulab.app.config.ProtobufJacksonHttpMessageConverter;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.BaseWebResponse;
+import com.edu.ulab.app.web.response.UserBookImportResponse;
+import com.edu.ulab.app.web.response.UserBookPageResponse;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестирование конвертеров двоичных форматов из {@link MessageConverterConfig}.
+ */
+@DisplayName("Testing binary message converters.")
+public class MessageConverterTest {
+    private final MessageConverterConfig config = new MessageConverterConfig();
+
+    private final UserBookPageResponse page = UserBookPageResponse.builder()
+            .content(List.of(
+                    UserBookResponse.builder().userId(1L).booksIdList(new long[]{10, 11, 12}).build(),
+                    UserBookResponse.builder().userId(2L).booksIdList(new long[0]).build()))
+            .nextCursor("Mg")
+            .build();
+
+    @Test
+    @DisplayName("Страница пользователей одинаково читается после записи в каждом формате")
+    void pageRoundTrip_Test() throws IOException {
+        List<AbstractHttpMessageConverter<Object>> converters = List.of(
+                new MappingJackson2HttpMessageConverter(),
+                config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()),
+                config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()),
+                config.protobufHttpMessageConverter());
+
+        for (AbstractHttpMessageConverter<Object> converter : converters) {
+            MediaType mediaType = converter.getSupportedMediaTypes().get(0);
+            byte[] body = write(converter, page, mediaType);
+
+            Object result = converter.read(UserBookPageResponse.class, new MockHttpInputMessage(body));
+
+            assertEquals(page.getNextCursor(), ((UserBookPageResponse) result).getNextCursor(), mediaType.toString());
+            assertEquals(page.getContent().size(), ((UserBookPageResponse) result).getContent().size());
+            for (int i = 0; i < page.getContent().size(); i++) {
+                assertEquals(page.getContent().get(i).getUserId(),
+                        ((UserBookPageResponse) result).getContent().get(i).getUserId());
+                // пустой repeated-список protobuf не передаёт, он читается как null
+                long[] booksIdList = ((UserBookPageResponse) result).getContent().get(i).getBooksIdList();
+                assertArrayEquals(page.getContent().get(i).getBooksIdList(),
+                        Objects.requireNonNullElse(booksIdList, new long[0]), mediaType.toString());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Protobuf: запрос создания читается по схеме, классы без схемы не поддерживаются")
+    void protobufRequestAndUnsupportedTypes_Test() throws IOException {
+        ProtobufJacksonHttpMessageConverter converter = config.protobufHttpMessageConverter();
+        MediaType protobuf = converter.getSupportedMediaTypes().get(0);
+
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("test name");
+        userRequest.setTitle("reader");
+        userRequest.setAge(30);
+        BookRequest bookRequest = new BookRequest();
+        bookRequest.setTitle("book");
+        bookRequest.setAuthor("author");
+        bookRequest.setPageCount(100);
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of(bookRequest));
+
+        Object result = converter.read(UserBookRequest.class, new MockHttpInputMessage(write(converter, request, protobuf)));
+
+        assertEquals(request, result);
+        assertTrue(converter.canWrite(BaseWebResponse.class, protobuf));
+        assertFalse(converter.canWrite(UserBookImportResponse.class, protobuf));
+    }
+
+    private static byte[] write(AbstractHttpMessageConverter<Object> converter, Object value, MediaType mediaType)
+            throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(value, mediaType, output);
+        return output.getBodyAsBytes();
+    }
+}
@@ -0,0 +1,116 @@
+package com.edu.ulab.web.filter;
+
+import com.edu.ulab.app.web.filter.AimdLimit;
+import com.edu.ulab.app.web.filter.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестирование {@link AimdLimit}.
+ */
+@DisplayName("Testing AIMD concurrency limit.")
+public class AimdLimitTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    private long now;
+
+    @Test
+    @DisplayName("Запросы сверх ограничения отклоняются, освобождение возвращает место")
+    void rejectsAboveLimit_Test() {
+        AimdLimit limit = new AimdLimit(budget(2, 1, 10));
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        release(limit, FAST, false);
+        assertTrue(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Быстрые ответы под нагрузкой увеличивают ограничение, медленные и ошибки уменьшают")
+    void limitAdaptsToLatency_Test() {
+        AimdLimit limit = new AimdLimit(budget(4, 2, 10));
+
+        for (int i = 0; i < 20; i++) {
+            fillAndRelease(limit, FAST, false);
+        }
+        int grown = limit.getLimit();
+        assertTrue(grown > 4, "Limit did not grow: " + grown);
+
+        for (int i = 0; i < 30; i++) {
+            assertTrue(limit.tryAcquire());
+            release(limit, SLOW, false);
+        }
+        assertEquals(2, limit.getLimit());
+
+        limit.tryAcquire();
+        release(limit, FAST, true);
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Без нагрузки быстрые ответы не увеличивают ограничение")
+    void idleDoesNotGrowLimit_Test() {
+        AimdLimit limit = new AimdLimit(budget(10, 2, 100));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire());
+            release(limit, FAST, false);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Пачка одновременных медленных ответов уменьшает ограничение один раз")
+    void burstDecreasesLimitOnce_Test() {
+        AimdLimit limit = new AimdLimit(budget(10, 2, 100));
+
+        fillAndRelease(limit, SLOW, false);
+        assertEquals(9, limit.getLimit());
+
+        fillAndRelease(limit, FAST, true);
+        assertEquals(8, limit.getLimit());
+    }
+
+    /**
+     * Один запрос: начинается после завершения предыдущих.
+     */
+    private void release(AimdLimit limit, long latency, boolean failed) {
+        long start = ++now;
+        now += latency;
+        limit.release(start, now, failed);
+    }
+
+    /**
+     * Поколение запросов: все начинаются одновременно и завершаются через {@code latency}.
+     */
+    private void fillAndRelease(AimdLimit limit, long latency, boolean failed) {
+        int acquired = 0;
+        while (limit.tryAcquire()) {
+            acquired++;
+        }
+        long start = ++now;
+        now += latency;
+        for (int i = 0; i < acquired; i++) {
+            limit.release(start, now, failed);
+        }
+    }
+
+    private static ConcurrencyLimitProperties.Budget budget(int initial, int min, int max) {
+        ConcurrencyLimitProperties.Budget budget = new ConcurrencyLimitProperties.Budget();
+        budget.setInitialLimit(initial);
+        budget.setMinLimit(min);
+        budget.setMaxLimit(max);
+        budget.setLatencyThreshold(Duration.ofMillis(100));
+        return budget;
+    }
+}
@@ -0,0 +1,160 @@
+package com.edu.ulab.web.filter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.filter.ConcurrencyLimitFilter;
+import com.edu.ulab.app.web.filter.ConcurrencyLimitProperties;
+import com.edu.ulab.app.web.filter.HttpRequestFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.servlet.Filter;
+import javax.servlet.ServletException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.edu.ulab.app.web.filter.ConcurrencyLimitFilter.IN_FLIGHT_GAUGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тестирование {@link ConcurrencyLimitFilter} в цепочке фильтров вместе с {@link HttpRequestFilter}:
+ * фильтры подключаются в порядке их {@code @Order}, как их регистрирует Spring Boot.
+ * Ограничение каждого эндпоинта - один запрос.
+ */
+@DisplayName("Testing concurrency limit filter.")
+public class ConcurrencyLimitFilterTest {
+    private static final String ASYNC_URL = WebConstant.VERSION_URL + "/test/async";
+    private static final String FAIL_URL = WebConstant.VERSION_URL + "/test/fail";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> rejectedRequestIds = new ArrayList<>();
+    private final Logger filterLogger = (Logger) LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+    private final AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+        @Override
+        protected void append(ILoggingEvent event) {
+            if (event.getLevel() == Level.WARN) {
+                rejectedRequestIds.add(event.getMDCPropertyMap().get("requestId"));
+            }
+        }
+    };
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        for (ConcurrencyLimitProperties.Budget budget : List.of(properties.getRead(), properties.getWrite())) {
+            budget.setInitialLimit(1);
+            budget.setMinLimit(1);
+            budget.setMaxLimit(1);
+        }
+        List<Filter> filters = new ArrayList<>(List.of(
+                new ConcurrencyLimitFilter(properties, meterRegistry, new ObjectMapper()),
+                new HttpRequestFilter()));
+        AnnotationAwareOrderComparator.sort(filters);
+        mockMvc = MockMvcBuilders.standaloneSetup(new TestController())
+                .addFilters(filters.toArray(Filter[]::new))
+                .build();
+
+        appender.start();
+        filterLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filterLogger.detachAppender(appender);
+        appender.stop();
+    }
+
+    @Test
+    @DisplayName("Запрос сверх ограничения получает 503 с Retry-After и логируется со своим rqid")
+    void rejectAboveLimit_Test() throws Exception {
+        MvcResult inFlight = mockMvc.perform(get(ASYNC_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(get(ASYNC_URL).header(WebConstant.RQID, "rejected-rqid"))
+                .andExpect(status().is(HttpStatus.SERVICE_UNAVAILABLE.value()))
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.errorMessage").exists());
+
+        assertEquals(List.of("rejected-rqid"), rejectedRequestIds);
+        complete(inFlight);
+    }
+
+    @Test
+    @DisplayName("Исключение в обработчике освобождает место")
+    void releaseOnException_Test() {
+        assertThrows(ServletException.class, () -> mockMvc.perform(get(FAIL_URL)));
+
+        assertEquals(0, inFlight(FAIL_URL));
+        assertThrows(ServletException.class, () -> mockMvc.perform(get(FAIL_URL)));
+        assertEquals(List.of(), rejectedRequestIds);
+    }
+
+    @Test
+    @DisplayName("Асинхронный ответ держит место до завершения и освобождает его в onComplete")
+    void releaseOnAsyncComplete_Test() throws Exception {
+        MvcResult result = mockMvc.perform(get(ASYNC_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1, inFlight(ASYNC_URL));
+
+        complete(result);
+
+        assertEquals(0, inFlight(ASYNC_URL));
+        mockMvc.perform(get(ASYNC_URL))
+                .andExpect(request().asyncStarted());
+    }
+
+    private double inFlight(String url) {
+        return meterRegistry.get(IN_FLIGHT_GAUGE).tag("endpoint", "GET " + url).gauge().value();
+    }
+
+    /**
+     * Завершение ответа контейнером: вызывает {@code onComplete} у слушателей асинхронного запроса.
+     */
+    private static void complete(MvcResult result) {
+        ((MockAsyncContext) result.getRequest().getAsyncContext()).complete();
+    }
+
+    @RestController
+    @RequestMapping(WebConstant.VERSION_URL + "/test")
+    static class TestController {
+        @GetMapping("/async")
+        public DeferredResult<String> async() {
+            return new DeferredResult<>();
+        }
+
+        @GetMapping("/fail")
+        public String fail() {
+            throw new IllegalStateException("Handler failed");
+        }
+    }
+}
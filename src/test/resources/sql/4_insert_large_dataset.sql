@@ -0,0 +1,10 @@
+insert into ulab_edu.person (ID, FULL_NAME, TITLE, AGE)
+select i, 'user ' || i, 'reader ' || i, 20 + i % 50
+from generate_series(1, 100000) as i;
+
+insert into ulab_edu.book (ID, PERSON_ID, TITLE, AUTHOR, PAGE_COUNT)
+select 1000000 + i, 1 + i % 100000, 'book ' || i, 'author ' || i % 1000, 100 + i % 900
+from generate_series(1, 500000) as i;
+
+analyze ulab_edu.person;
+analyze ulab_edu.book;
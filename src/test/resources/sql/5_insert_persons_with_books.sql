@@ -0,0 +1,7 @@
+insert into ulab_edu.person (ID, FULL_NAME, TITLE, AGE)
+select 5000 + i, 'batch user ' || i, 'batch reader ' || i, 20 + i
+from generate_series(1, 20) as i;
+
+insert into ulab_edu.book (ID, PERSON_ID, TITLE, AUTHOR, PAGE_COUNT)
+select 6000 + i, 5001 + i % 20, 'batch book ' || i, 'batch author', 100 + i
+from generate_series(0, 59) as i;